@@ -0,0 +1,26 @@
+package com.example.blog.controller;
+
+import com.example.blog.security.PasswordHashingExecutor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin-only view of the password-hashing pool (secured under /api/admin/** in SecurityConfig).
+ */
+@RestController
+@RequestMapping("/api/admin/auth")
+public class AuthAdminController {
+
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    public AuthAdminController(PasswordHashingExecutor passwordHashingExecutor) {
+        this.passwordHashingExecutor = passwordHashingExecutor;
+    }
+
+    @GetMapping("/hashing")
+    public ResponseEntity<PasswordHashingExecutor.Stats> getHashingStats() {
+        return ResponseEntity.ok(passwordHashingExecutor.getStats());
+    }
+}
@@ -6,6 +6,7 @@ import com.example.blog.repository.UserRepository;
 import com.example.blog.service.BlockService;
 import com.example.blog.service.S3Service;
 import com.example.blog.service.UserService;
+import com.example.blog.security.PasswordHashingBusyException;
 import com.example.blog.util.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -75,12 +76,17 @@ public class AuthController {
     @GetMapping("/me")
     public ResponseEntity<?> getCurrentUser(HttpServletRequest request) {
         try {
-            AppUser user = authenticateRequest(request);
-            if(user.isBanned()){
+            String token = extractToken(request);
+            if (!jwtUtil.validateToken(token)) {
+                throw new RuntimeException("Unauthorized: Invalid or missing token");
+            }
+            UserProfileView profile = userService.getProfileView(jwtUtil.extractUsername(token))
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            if (Boolean.TRUE.equals(profile.getBanned())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("You have been banned for violating our terms of service. Please email trasoramusic@gmail.com to file a claim to be unbanned.");
             }
-            return ResponseEntity.ok(mapToUserDto(user));
+            return ResponseEntity.ok(mapToUserDto(profile));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
         }
@@ -116,6 +122,10 @@ public class AuthController {
 
             return ResponseEntity.ok(responseData);
 
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "2")
+                    .body(Map.of("message", e.getReason()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("message", "Invalid username or password"));
@@ -204,10 +214,9 @@ public class AuthController {
 
     @GetMapping("/user/{username}")
     public ResponseEntity<UserDto> getUserByUsername(@PathVariable String username) {
-        AppUser user = userService.getUserByUsername(username);
-        return user == null
-                ? ResponseEntity.status(HttpStatus.NOT_FOUND).build()
-                : ResponseEntity.ok(mapToUserDto(user));
+        return userService.getProfileView(username)
+                .map(profile -> ResponseEntity.ok(mapToUserDto(profile)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
     @PutMapping(value = "/user", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -311,6 +320,22 @@ public class AuthController {
         return userService.getReferralLeaderboard();
     }
 
+    /**
+     * Live signup check, e.g. GET /api/auth/availability?username=alice&email=a@b.com
+     * (either parameter may be omitted).
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<?> checkAvailability(@RequestParam(required = false) String username,
+                                               @RequestParam(required = false) String email) {
+        if ((username == null || username.isBlank()) && (email == null || email.isBlank())) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Provide a username or an email"));
+        }
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        if (username != null && !username.isBlank()) result.put("usernameAvailable", userService.isUsernameAvailable(username.trim()));
+        if (email != null && !email.isBlank()) result.put("emailAvailable", userService.isEmailAvailable(email.trim()));
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/search")
     public ResponseEntity<Map<String, Object>> searchUsers(@RequestParam String q) {
         List<AppUser> users = userService.searchUsersByUsername(q, 5);
@@ -418,8 +443,8 @@ public class AuthController {
                 user.getJoinedAt(),
                 user.getProfilePictureUrl(),
                 user.getRole(),
-                userService.getFollowersCount(user.getId()),
-                userService.getFollowingCount(user.getId()),
+                user.getFollowerCount(),
+                user.getFollowingCount(),
                 user.getAccentColor(),
                 user.isSpotifyConnected(),
                 user.isProfilePublic(),
@@ -436,6 +461,39 @@ public class AuthController {
         );
     }
 
+    // Same field order as mapToUserDto(AppUser), including the push key order clients rely on
+    private UserDto mapToUserDto(UserProfileView profile) {
+        return new UserDto(
+                profile.getId(),
+                profile.getFullName(),
+                profile.getEmail(),
+                profile.getUsername(),
+                profile.getBio(),
+                profile.getJoinedAt(),
+                profile.getProfilePictureUrl(),
+                profile.getRole(),
+                orZero(profile.getFollowerCount()),
+                orZero(profile.getFollowingCount()),
+                profile.getAccentColor(),
+                Boolean.TRUE.equals(profile.getSpotifyConnected()),
+                Boolean.TRUE.equals(profile.getProfilePublic()),
+                orZero(profile.getBranchCount()),
+                Boolean.TRUE.equals(profile.getSpotifyPremium()),
+                profile.getReferredBy() != null && !profile.getReferredBy().isBlank()
+                        ? profile.getReferredBy()
+                        : null,
+                profile.getPushSubscriptionEndpoint(),
+                profile.getPushSubscriptionKeysAuth(),
+                profile.getPushSubscriptionKeysP256dh(),
+                profile.getApnDeviceToken(),
+                Boolean.TRUE.equals(profile.getBanned())
+        );
+    }
+
+    private static int orZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
     private AuthResponse mapToAuthResponse(AppUser user, String token, boolean isFollowing) {
         return new AuthResponse(
                 token,
@@ -445,8 +503,8 @@ public class AuthController {
                 user.getBio(),
                 user.getRole(),
                 user.getJoinedAt(),
-                userService.getFollowersCount(user.getId()),
-                userService.getFollowingCount(user.getId()),
+                user.getFollowerCount(),
+                user.getFollowingCount(),
                 isFollowing,
                 user.isProfilePublic()
         );
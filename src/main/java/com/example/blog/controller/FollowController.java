@@ -1,8 +1,9 @@
 package com.example.blog.controller;
 
+import com.example.blog.dto.FollowPageDto;
+import com.example.blog.dto.FollowStatusDto;
 import com.example.blog.dto.SuggestedUserDto;
 import com.example.blog.dto.UserDto;
-import com.example.blog.entity.AppUser;
 import com.example.blog.entity.Follow;
 import com.example.blog.service.FollowService;
 import org.springframework.http.ResponseEntity;
@@ -12,12 +13,14 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/follow")
 public class FollowController {
 
+    private static final int MAX_STATUS_BATCH = 100;
+    private static final int MAX_REQUEST_BATCH = 500;
+
     private final FollowService followService;
 
     public FollowController(FollowService followService) {
@@ -113,6 +116,22 @@ public class FollowController {
         ));
     }
 
+    /**
+     * Batch variant of /{id}/status for lists of users: POST a JSON array of user ids
+     * (at most 100) and get the viewer's follow, request and block state for each.
+     */
+    @PostMapping("/status/batch")
+    public ResponseEntity<?> getFollowStatuses(
+            @RequestBody List<Long> userIds,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        if (userIds.size() > MAX_STATUS_BATCH) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_STATUS_BATCH + " user ids per request"));
+        }
+        Map<Long, FollowStatusDto> statuses = followService.getFollowStatuses(userDetails.getUsername(), userIds);
+        return ResponseEntity.ok(statuses);
+    }
+
     /**
      * Accept a pending follow request.
      */
@@ -128,6 +147,36 @@ public class FollowController {
         }
     }
 
+    /**
+     * Accept many pending follow requests at once: POST a JSON array of follow ids.
+     */
+    @PostMapping("/requests/accept")
+    public ResponseEntity<?> acceptFollowRequests(
+            @RequestBody List<Long> followIds,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        if (followIds.size() > MAX_REQUEST_BATCH) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_REQUEST_BATCH + " requests per call"));
+        }
+        int accepted = followService.acceptFollowRequests(followIds, userDetails.getUsername());
+        return ResponseEntity.ok(Map.of("accepted", accepted, "skipped", followIds.size() - accepted));
+    }
+
+    /**
+     * Reject many pending follow requests at once: POST a JSON array of follow ids.
+     */
+    @PostMapping("/requests/reject")
+    public ResponseEntity<?> rejectFollowRequests(
+            @RequestBody List<Long> followIds,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        if (followIds.size() > MAX_REQUEST_BATCH) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_REQUEST_BATCH + " requests per call"));
+        }
+        int rejected = followService.rejectFollowRequests(followIds, userDetails.getUsername());
+        return ResponseEntity.ok(Map.of("rejected", rejected, "skipped", followIds.size() - rejected));
+    }
+
     /**
      * Reject a pending follow request.
      */
@@ -142,18 +191,7 @@ public class FollowController {
 
     @GetMapping("/suggested/{username}")
     public List<SuggestedUserDto> getSuggestedFollows(@PathVariable String username) {
-        List<AppUser> users = followService.getSuggestedFollows(username);
-
-        // Map to lightweight DTO
-        return users.stream()
-                .map(u -> new SuggestedUserDto(
-                        u.getId(),
-                        u.getUsername(),
-                        u.getFullName(),
-                        u.getProfilePictureUrl(),
-                        u.getAccentColor()
-                ))
-                .collect(Collectors.toList());
+        return followService.getSuggestedFollows(username);
     }
 
     @GetMapping("/{username}/followers")
@@ -168,6 +206,27 @@ public class FollowController {
         return ResponseEntity.ok(followService.getFollowing(username));
     }
 
+    /**
+     * Paginated followers, e.g. GET /api/follow/{username}/followers/page?limit=50&cursor=...
+     */
+    @GetMapping("/{username}/followers/page")
+    public ResponseEntity<FollowPageDto> getFollowersPage(@PathVariable String username,
+                                                          @RequestParam(required = false) Long cursor,
+                                                          @RequestParam(defaultValue = "50") int limit,
+                                                          @AuthenticationPrincipal UserDetails userDetails) {
+        String viewer = userDetails != null ? userDetails.getUsername() : null;
+        return ResponseEntity.ok(followService.getFollowersPage(username, viewer, cursor, limit));
+    }
+
+    @GetMapping("/{username}/following/page")
+    public ResponseEntity<FollowPageDto> getFollowingPage(@PathVariable String username,
+                                                          @RequestParam(required = false) Long cursor,
+                                                          @RequestParam(defaultValue = "50") int limit,
+                                                          @AuthenticationPrincipal UserDetails userDetails) {
+        String viewer = userDetails != null ? userDetails.getUsername() : null;
+        return ResponseEntity.ok(followService.getFollowingPage(username, viewer, cursor, limit));
+    }
+
 
 
 }
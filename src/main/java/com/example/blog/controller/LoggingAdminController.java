@@ -0,0 +1,38 @@
+package com.example.blog.controller;
+
+import com.example.blog.util.LogSampler;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Admin-only runtime control of log sampling (secured under /api/admin/** in SecurityConfig).
+ */
+@RestController
+@RequestMapping("/api/admin/logging")
+public class LoggingAdminController {
+
+    private final LogSampler logSampler;
+
+    public LoggingAdminController(LogSampler logSampler) {
+        this.logSampler = logSampler;
+    }
+
+    @GetMapping("/sampling")
+    public ResponseEntity<Map<String, LogSampler.CategoryStats>> getSampling() {
+        return ResponseEntity.ok(logSampler.getStats());
+    }
+
+    /**
+     * Update one category, e.g. PUT /api/admin/logging/sampling/push.apns?sampleRate=0.1&maxPerSecond=20
+     */
+    @PutMapping("/sampling/{category}")
+    public ResponseEntity<Map<String, LogSampler.CategoryStats>> updateSampling(
+            @PathVariable String category,
+            @RequestParam double sampleRate,
+            @RequestParam int maxPerSecond) {
+        logSampler.setPolicy(category, new LogSampler.Policy(sampleRate, maxPerSecond));
+        return ResponseEntity.ok(logSampler.getStats());
+    }
+}
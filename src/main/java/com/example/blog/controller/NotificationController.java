@@ -3,11 +3,14 @@ package com.example.blog.controller;
 import com.example.blog.dto.NotificationDto;
 import com.example.blog.entity.AppUser;
 import com.example.blog.service.NotificationService;
-import com.example.blog.repository.UserRepository;
+import com.example.blog.security.CurrentUser;
+import com.example.blog.service.NotificationStreamService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -17,7 +20,8 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService notificationService;
-    private final UserRepository userRepository;
+    private final CurrentUser requestUser;
+    private final NotificationStreamService notificationStreamService;
 
     @GetMapping("/unread")
     public List<NotificationDto> getUnreadNotifications(@AuthenticationPrincipal UserDetails userDetails) {
@@ -31,6 +35,17 @@ public class NotificationController {
         return notificationService.toDtoList(notificationService.getAllNotifications(user));
     }
 
+    /**
+     * Live notification stream (Server-Sent Events). Clients reconnecting with
+     * Last-Event-ID receive the notifications they missed first.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(@AuthenticationPrincipal UserDetails userDetails,
+                                          @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        AppUser user = getCurrentUser(userDetails);
+        return notificationStreamService.subscribe(user, lastEventId);
+    }
+
     @PostMapping("/{id}/read")
     public void markNotificationAsRead(@PathVariable Long id,
                                        @AuthenticationPrincipal UserDetails userDetails) {
@@ -45,8 +60,7 @@ public class NotificationController {
     }
 
     private AppUser getCurrentUser(UserDetails userDetails) {
-        return userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return requestUser.require();
     }
 
     @PostMapping("/read-all-except-follow")
@@ -4,6 +4,7 @@ import com.example.blog.dto.CommentDto;
 import com.example.blog.dto.PostDto;
 import com.example.blog.entity.AppUser;
 import com.example.blog.repository.UserRepository;
+import com.example.blog.security.CurrentUser;
 import com.example.blog.service.FollowService;
 import com.example.blog.service.PostService;
 import com.example.blog.service.UserService;
@@ -24,18 +25,21 @@ public class PostController {
     private final PostService postService;
     private final UserRepository userRepository;
     private final FollowService followService;
+    private final CurrentUser requestUser;
 
-    public PostController(PostService postService, UserRepository userRepository, FollowService followService, UserService userService) {
+    public PostController(PostService postService, UserRepository userRepository, FollowService followService,
+                          UserService userService, CurrentUser requestUser) {
         this.postService = postService;
         this.userRepository = userRepository;
         this.followService = followService;
+        this.requestUser = requestUser;
     }
 
     private AppUser getAppUserFromPrincipal(UserDetails principal) {
         if (principal == null) {
             return null;
         }
-        return userRepository.findByUsername(principal.getUsername()).orElse(null);
+        return requestUser.get();
     }
 
     @GetMapping
@@ -55,7 +59,7 @@ public class PostController {
 
         if (!author.isProfilePublic()) {
             boolean isFollower = followService.isFollowing(
-                    currentUser != null ? currentUser.getUsername() : null,
+                    currentUser != null ? currentUser.getId() : null,
                     author.getId()
             );
             if (!isFollower && (currentUser == null || !currentUser.getId().equals(author.getId()))) {
@@ -88,7 +92,7 @@ public class PostController {
         AppUser currentUser = getAppUserFromPrincipal(principal);
         PostDto post = postService.getPost(id, currentUser);
 
-        if (!post.isPublic() && (currentUser == null || !followService.isFollowing(currentUser.getUsername(), post.getAuthorId()))) {
+        if (!post.isPublic() && (currentUser == null || !followService.isFollowing(currentUser.getId(), post.getAuthorId()))) {
             return ResponseEntity.status(403).build();
         }
 
@@ -152,9 +156,7 @@ public class PostController {
     @PostMapping("/{postId}/branch")
     public ResponseEntity<Void> branchPost(@PathVariable Long postId,
                                            @AuthenticationPrincipal UserDetails userDetails) {
-        AppUser currentUser = userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found with the username: " + userDetails.getUsername()));
-        postService.incrementBranchCount(postId, currentUser);
+        postService.incrementBranchCount(postId, requestUser.require());
         return ResponseEntity.ok().build();
     }
 
@@ -1,7 +1,10 @@
 package com.example.blog.controller;
 
+import com.example.blog.util.LogSampler;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -12,20 +15,29 @@ import java.io.IOException;
 @RequestMapping("/share")
 public class ShareController {
 
+    private static final Logger log = LoggerFactory.getLogger(ShareController.class);
+
+    private final LogSampler logSampler;
+
+    public ShareController(LogSampler logSampler) {
+        this.logSampler = logSampler;
+    }
+
     @GetMapping
     public void shareRedirect(HttpServletRequest request, HttpServletResponse response) throws IOException {
-        System.out.println("🔥 SHARE HIT");
         String userAgent = request.getHeader("User-Agent").toLowerCase();
 
         boolean isIOS = userAgent.contains("iphone") || userAgent.contains("ipad");
 
+        if (logSampler.shouldLog("share.hit")) {
+            log.atInfo().addKeyValue("ios", isIOS).log("Share link hit");
+        }
+
         if (isIOS) {
             // Try to open the iOS app
-            System.out.println("This is IOS");
             response.sendRedirect("trasora://create");
         } else {
             // Web fallback
-            System.out.println("This should redirect to website");
             response.sendRedirect("https://www.trasora.com/create");
         }
     }
@@ -0,0 +1,27 @@
+package com.example.blog.controller;
+
+import com.example.blog.service.StoryReaper;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin-only story maintenance (secured under /api/admin/** in SecurityConfig).
+ */
+@RestController
+@RequestMapping("/api/admin/stories")
+public class StoryAdminController {
+
+    private final StoryReaper storyReaper;
+
+    public StoryAdminController(StoryReaper storyReaper) {
+        this.storyReaper = storyReaper;
+    }
+
+    /** Runs one reaper pass now and returns what it reclaimed. */
+    @PostMapping("/reap")
+    public ResponseEntity<StoryReaper.ReapReport> reap() {
+        return ResponseEntity.ok(storyReaper.reap());
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.blog.controller;
 
 import com.example.blog.dto.StoryDto;
+import com.example.blog.dto.StoryTrayDto;
 import com.example.blog.entity.AppUser;
 import com.example.blog.repository.UserRepository;
+import com.example.blog.security.CurrentUser;
 import com.example.blog.service.StoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -14,6 +16,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/stories")
@@ -22,12 +25,13 @@ public class StoryController {
 
     private final StoryService storyService;
     private final UserRepository userRepository;
+    private final CurrentUser requestUser;
 
     private AppUser getAppUserFromPrincipal(UserDetails principal) {
         if (principal == null) {
             return null;
         }
-        return userRepository.findByUsername(principal.getUsername()).orElse(null);
+        return requestUser.get();
     }
 
     /**
@@ -67,6 +71,19 @@ public class StoryController {
         return ResponseEntity.ok(stories);
     }
 
+    /**
+     * Active stories grouped by author for the story tray
+     */
+    @GetMapping("/tray")
+    public ResponseEntity<List<StoryTrayDto>> getStoryTray(@AuthenticationPrincipal UserDetails principal) {
+        AppUser currentUser = getAppUserFromPrincipal(principal);
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(storyService.getStoryTray(currentUser));
+    }
+
     /**
      * Get all stories for a specific user
      */
@@ -128,4 +145,57 @@ public class StoryController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
+
+    /**
+     * Expired stories the current user has archived, newest first
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<List<StoryDto>> getArchivedStories(@AuthenticationPrincipal UserDetails principal) {
+        AppUser currentUser = getAppUserFromPrincipal(principal);
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(storyService.getArchivedStories(currentUser));
+    }
+
+    /**
+     * Turn the story archive on or off, e.g. PUT /api/stories/archive/settings?enabled=true
+     */
+    @PutMapping("/archive/settings")
+    public ResponseEntity<?> setStoryArchiveEnabled(
+            @AuthenticationPrincipal UserDetails principal,
+            @RequestParam boolean enabled
+    ) {
+        AppUser currentUser = getAppUserFromPrincipal(principal);
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        storyService.setStoryArchiveEnabled(currentUser, enabled);
+        return ResponseEntity.ok(Map.of("storyArchiveEnabled", enabled));
+    }
+
+    /**
+     * Approximate distinct view count of a story (author only)
+     */
+    @GetMapping("/{storyId}/views/count")
+    public ResponseEntity<?> getViewCount(
+            @AuthenticationPrincipal UserDetails principal,
+            @PathVariable Long storyId
+    ) {
+        AppUser currentUser = getAppUserFromPrincipal(principal);
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            return ResponseEntity.ok(Map.of("storyId", storyId, "viewCount", storyService.getViewCount(storyId, currentUser)));
+        } catch (RuntimeException e) {
+            if (("Story not found: " + storyId).equals(e.getMessage())) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+    }
 }
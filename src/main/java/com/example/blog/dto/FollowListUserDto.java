@@ -0,0 +1,21 @@
+package com.example.blog.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One row of a followers/following list: just what the list view renders, plus
+ * the viewer's own follow status towards that user.
+ */
+@Data
+@AllArgsConstructor
+public class FollowListUserDto {
+    @JsonIgnore
+    private Long followId; // pagination cursor
+    private Long id;
+    private String username;
+    private String profilePictureUrl;
+    private String accentColor;
+    private String followStatus; // "following", "requested", "not-following" or "self"
+}
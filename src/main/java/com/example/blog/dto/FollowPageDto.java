@@ -0,0 +1,13 @@
+package com.example.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class FollowPageDto {
+    private List<FollowListUserDto> users;
+    private Long nextCursor; // null when there are no more pages
+}
@@ -0,0 +1,16 @@
+package com.example.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The viewer's relationship to one user, as returned by the batch status endpoint.
+ */
+@Data
+@AllArgsConstructor
+public class FollowStatusDto {
+    private String status;      // "following", "requested", "not-following" or "self"
+    private boolean followsYou; // accepted follow from that user to the viewer
+    private boolean blocked;    // viewer has blocked that user
+    private boolean blockedBy;  // that user has blocked the viewer
+}
@@ -0,0 +1,21 @@
+package com.example.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One author's bubble in the story tray: their active stories, oldest first.
+ */
+@Data
+@AllArgsConstructor
+public class StoryTrayDto {
+    private Long authorId;
+    private String authorUsername;
+    private String authorProfilePictureUrl;
+    private boolean hasUnviewed;
+    private LocalDateTime latestCreatedAt;
+    private List<StoryDto> stories;
+}
@@ -0,0 +1,34 @@
+package com.example.blog.dto;
+
+import com.example.blog.entity.Role;
+
+import java.util.Date;
+
+/**
+ * Column-only projection of AppUser with just what a profile response needs, read
+ * without materializing the entity or any of its collections. Wrapper types because
+ * older rows may hold nulls in the boolean and counter columns.
+ */
+public interface UserProfileView {
+    Long getId();
+    String getFullName();
+    String getEmail();
+    String getUsername();
+    String getBio();
+    Date getJoinedAt();
+    String getProfilePictureUrl();
+    Role getRole();
+    Integer getFollowerCount();
+    Integer getFollowingCount();
+    String getAccentColor();
+    Boolean getSpotifyConnected();
+    Boolean getProfilePublic();
+    Integer getBranchCount();
+    Boolean getSpotifyPremium();
+    String getReferredBy();
+    String getPushSubscriptionEndpoint();
+    String getPushSubscriptionKeysP256dh();
+    String getPushSubscriptionKeysAuth();
+    String getApnDeviceToken();
+    Boolean getBanned();
+}
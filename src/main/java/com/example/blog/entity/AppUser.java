@@ -12,6 +12,10 @@ import java.util.Date;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_app_user_follower_count", columnList = "follower_count"),
+        @Index(name = "idx_app_user_referred_by", columnList = "referred_by")
+})
 @Data
 public class AppUser {
     @Id
@@ -80,6 +84,16 @@ public class AppUser {
     @JsonManagedReference
     private List<Follow> followers = new ArrayList<>();
 
+    // Denormalized accepted-follow counts, written only by UserRepository's counter
+    // queries (never by entity saves) and reconciled by FollowCounterRepairJob
+    @Column(name = "follower_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "integer default 0")
+    private int followerCount;
+
+    @Column(name = "following_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "integer default 0")
+    private int followingCount;
+
     @OneToMany(mappedBy = "recipient", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
     private List<Notification> receivedNotifications = new ArrayList<>();
@@ -91,6 +105,7 @@ public class AppUser {
     @Column(nullable = false)
     private boolean spotifyPremium;
 
+    @Column(name = "referred_by")
     private String referredBy;
 
     @Column(length = 2048)
@@ -110,4 +125,8 @@ public class AppUser {
 
     @Column(nullable = false, columnDefinition = "boolean default false")
     private boolean banned;
+
+    // Keep expired stories in story_archive instead of deleting them
+    @Column(name = "story_archive_enabled", nullable = false, columnDefinition = "boolean default false")
+    private boolean storyArchiveEnabled;
 }
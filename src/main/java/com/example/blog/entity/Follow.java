@@ -9,7 +9,13 @@ import org.springframework.data.annotation.CreatedDate;
 import java.time.Instant;
 
 @Entity
-@Table(name = "follows", uniqueConstraints = @UniqueConstraint(columnNames = {"follower_id", "following_id"}))
+@Table(name = "follows",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"follower_id", "following_id"}),
+        indexes = {
+                // Cursor pagination of follower / following lists (WHERE x_id = ? AND id < ? ORDER BY id DESC)
+                @Index(name = "idx_follows_following_id_id", columnList = "following_id, id"),
+                @Index(name = "idx_follows_follower_id_id", columnList = "follower_id, id")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,47 @@
+package com.example.blog.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One precomputed "people you may know" entry, ranked per user by the offline
+ * suggestion job. User ids are plain columns (no FK) so deleting an account
+ * never has to cascade through this table; stale rows drop out of the read join.
+ */
+@Entity
+@Table(name = "follow_suggestions", indexes = {
+        @Index(name = "idx_follow_suggestions_user_position", columnList = "user_id, position")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FollowSuggestion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "suggested_user_id", nullable = false)
+    private Long suggestedUserId;
+
+    @Column(nullable = false)
+    private int position;
+
+    private int score;
+
+    // Raw signal counts, kept for tuning the weights
+    private int mutualCount;
+    private int sharedRootCount;
+    private int sharedTrunkCount;
+
+    private LocalDateTime computedAt;
+}
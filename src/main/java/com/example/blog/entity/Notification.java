@@ -9,7 +9,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_type_read_created", columnList = "type, is_read, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,10 +37,13 @@ public class Notification {
     private Post post;
 
     @Enumerated(EnumType.STRING)
+    @Column(name = "type")
     private NotificationType type;
 
+    @Column(name = "is_read")
     private boolean isRead = false;
 
+    @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @ManyToOne(fetch = FetchType.LAZY)
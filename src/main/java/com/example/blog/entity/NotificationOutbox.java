@@ -0,0 +1,80 @@
+package com.example.blog.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One pending push delivery (APNs or web push) for a saved notification.
+ * Written in the same transaction as the {@link Notification} row and
+ * drained by the outbox relay outside of any request transaction.
+ */
+@Entity
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_notification_outbox_status_next", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "notification_id")
+    private Long notificationId;
+
+    @Column(name = "recipient_id", nullable = false)
+    private Long recipientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Channel channel;
+
+    private String title;
+
+    @Column(length = 2000)
+    private String body;
+
+    @Column(length = 2048)
+    private String imageUrl;
+
+    @Column(length = 2048)
+    private String url;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Builder.Default
+    private int attempts = 0;
+
+    // Earliest time of the next delivery attempt; while IN_FLIGHT this is the lease expiry
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime processedAt;
+
+    public enum Channel {
+        APNS,
+        WEB_PUSH
+    }
+
+    public enum Status {
+        PENDING,
+        IN_FLIGHT,
+        DONE,
+        DEAD
+    }
+}
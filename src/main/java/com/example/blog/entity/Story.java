@@ -15,6 +15,10 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_story_author_expires", columnList = "author_id, expires_at"),
+        @Index(name = "idx_story_expires", columnList = "expires_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -51,6 +55,7 @@ public class Story {
 
     @CreationTimestamp
     private LocalDateTime createdAt;
+    @Column(name = "expires_at")
     private LocalDateTime expiresAt; // auto-set to 24h from createdAt
 
     @ManyToMany
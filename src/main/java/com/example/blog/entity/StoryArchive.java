@@ -0,0 +1,55 @@
+package com.example.blog.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Copy of an expired story kept for authors who opted into a story archive.
+ * Written by the story reaper just before the live row is deleted; the media
+ * object is left in S3 so contentUrl stays valid.
+ */
+@Entity
+@Table(name = "story_archive", indexes = {
+        @Index(name = "idx_story_archive_author_created", columnList = "author_id, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoryArchive {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Id of the deleted story; unique so a retried reaper batch archives once
+    @Column(name = "story_id", nullable = false, unique = true)
+    private Long storyId;
+
+    @Column(name = "author_id", nullable = false)
+    private Long authorId;
+
+    private String trackId;
+    private String trackName;
+    private String artistName;
+    private String albumArtUrl;
+    private String applePreviewUrl;
+    private String contentUrl;
+    private String s3Key;
+
+    @Enumerated(EnumType.STRING)
+    private Story.StoryType type;
+
+    private String caption;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    private LocalDateTime expiresAt;
+    private LocalDateTime archivedAt;
+}
@@ -3,6 +3,8 @@ package com.example.blog.repository;
 import com.example.blog.entity.Block;
 import com.example.blog.entity.AppUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,4 +12,14 @@ import java.util.Optional;
 public interface BlockRepository extends JpaRepository<Block, Long> {
     List<Block> findAllByBlocker(AppUser blocker);
     Optional<Block> findByBlockerAndBlocked(AppUser blocker, AppUser blocked);
+
+    @Query("SELECT b.blocked.id FROM Block b WHERE b.blocker.id = :blockerId")
+    List<Long> findBlockedIdsByBlockerId(@Param("blockerId") Long blockerId);
+
+    @Query("SELECT b.blocker.id FROM Block b WHERE b.blocked.id = :blockedId")
+    List<Long> findBlockerIdsByBlockedId(@Param("blockedId") Long blockedId);
+
+    // Every block as [blockerId, blockedId]
+    @Query("SELECT b.blocker.id, b.blocked.id FROM Block b")
+    List<Object[]> findAllBlockPairs();
 }
@@ -15,4 +15,8 @@ public interface BranchRepository extends JpaRepository<Branch, Long> {
     long countByTrunkId(Long trunkId);
     @Query("SELECT MAX(b.position) FROM Branch b WHERE b.trunk.id = :trunkId")
     Optional<Integer> findMaxPositionByTrunkId(@Param("trunkId") Long trunkId);
+
+    // Every [trunkId, userId] pair where the user added a branch, used by the suggestion job
+    @Query("SELECT DISTINCT b.trunk.id, b.addedBy.id FROM Branch b WHERE b.addedBy IS NOT NULL")
+    List<Object[]> findAllTrunkContributors();
 }
@@ -0,0 +1,46 @@
+package com.example.blog.repository;
+
+import com.example.blog.entity.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Due rows (pending, or in flight with an expired lease), locked so concurrent relays skip each other's rows
+    @Query(value = """
+        SELECT * FROM email_outbox
+        WHERE status IN ('PENDING', 'IN_FLIGHT')
+          AND next_attempt_at <= :now
+        ORDER BY id
+        LIMIT :batchSize
+        FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<EmailOutbox> lockDueBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+
+    // Transaction-scoped lock on the dedup key, so concurrent enqueues of the same key check and insert one at a time
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext(:dedupKey))", nativeQuery = true)
+    Integer lockDedupKey(@Param("dedupKey") String dedupKey);
+
+    boolean existsByDedupKeyAndCreatedAtAfter(String dedupKey, LocalDateTime since);
+
+    @Modifying
+    @Query("""
+        UPDATE EmailOutbox e
+        SET e.status = com.example.blog.entity.EmailOutbox.Status.SENT, e.processedAt = :now, e.lastError = null
+        WHERE e.id IN :ids
+    """)
+    int markSent(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmailOutbox e WHERE e.status = :status AND e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("status") EmailOutbox.Status status,
+                              @Param("cutoff") LocalDateTime cutoff);
+}
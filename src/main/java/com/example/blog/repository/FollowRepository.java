@@ -1,11 +1,17 @@
 package com.example.blog.repository;
 
+import com.example.blog.dto.FollowListUserDto;
 import com.example.blog.entity.AppUser;
 import com.example.blog.entity.Follow;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +20,8 @@ public interface FollowRepository extends JpaRepository<Follow, Long> {
     // Check if a follow relation already exists (pending or accepted)
     boolean existsByFollowerAndFollowing(AppUser follower, AppUser following);
 
+    boolean existsByFollower_IdAndFollowing_IdAndAcceptedTrue(Long followerId, Long followingId);
+
     // Find a specific follow relation
     Optional<Follow> findByFollowerAndFollowing(AppUser follower, AppUser following);
 
@@ -44,22 +52,73 @@ public interface FollowRepository extends JpaRepository<Follow, Long> {
     // Remove a follow relationship (accepted or not)
     void deleteByFollowerAndFollowing(AppUser follower, AppUser following);
 
-    // Suggested follows: people followed by your followees
+    // Pending requests addressed to :followingId among :ids, with the requester loaded for notifications.
+    // Rows are locked, so a concurrent cancel or reject either finishes first (and the row is not
+    // returned) or waits until this transaction has acted on exactly the rows it read
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        SELECT f FROM Follow f JOIN FETCH f.follower
+        WHERE f.id IN :ids AND f.following.id = :followingId AND f.accepted = false
+    """)
+    List<Follow> findPendingByIdsForFollowing(@Param("ids") Collection<Long> ids,
+                                              @Param("followingId") Long followingId);
+
+    @Modifying
+    @Query("UPDATE Follow f SET f.accepted = true WHERE f.id IN :ids AND f.accepted = false")
+    int acceptAllByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Follow f WHERE f.id IN :ids AND f.accepted = false")
+    int deletePendingByIds(@Param("ids") Collection<Long> ids);
+
+    // The viewer's follow rows (pending or accepted) towards a batch of users, as [followingId, accepted]
+    @Query("SELECT f.following.id, f.accepted FROM Follow f WHERE f.follower.id = :followerId AND f.following.id IN :ids")
+    List<Object[]> findStatesByFollowerIdAndFollowingIds(@Param("followerId") Long followerId,
+                                                         @Param("ids") Collection<Long> ids);
+
+    // Every accepted edge as [followerId, followingId], used to build the in-memory follow graph
+    @Query("SELECT f.follower.id, f.following.id FROM Follow f WHERE f.accepted = true")
+    List<Object[]> findAllAcceptedEdges();
+
+    // Every pending request as [followerId, followingId]
+    @Query("SELECT f.follower.id, f.following.id FROM Follow f WHERE f.accepted = false")
+    List<Object[]> findAllPendingEdges();
+
+    // One page of accepted followers of :userId, newest first, with the viewer's status towards each
     @Query("""
-        SELECT DISTINCT f2.following
-        FROM Follow f1
-        JOIN Follow f2 ON f1.following = f2.follower
-        WHERE f1.follower = :user AND f2.following <> :user AND f2.accepted = true
+        SELECT new com.example.blog.dto.FollowListUserDto(
+            f.id, u.id, u.username, u.profilePictureUrl, u.accentColor,
+            CASE WHEN u.id = :viewerId THEN 'self'
+                 WHEN vf.id IS NULL THEN 'not-following'
+                 WHEN vf.accepted = true THEN 'following'
+                 ELSE 'requested' END)
+        FROM Follow f
+        JOIN f.follower u
+        LEFT JOIN Follow vf ON vf.follower.id = :viewerId AND vf.following = u
+        WHERE f.following.id = :userId AND f.accepted = true AND f.id < :cursor
+        ORDER BY f.id DESC
     """)
-    List<AppUser> findSuggestedFollows(@Param("user") AppUser user);
+    List<FollowListUserDto> findFollowersPage(@Param("userId") Long userId,
+                                              @Param("viewerId") Long viewerId,
+                                              @Param("cursor") Long cursor,
+                                              Pageable pageable);
 
-    // Top N most-followed users
+    // One page of accounts :userId follows (accepted), newest first, with the viewer's status towards each
     @Query("""
-        SELECT u
-        FROM AppUser u
-        LEFT JOIN Follow f ON f.following = u AND f.accepted = true
-        GROUP BY u
-        ORDER BY COUNT(f.id) DESC
+        SELECT new com.example.blog.dto.FollowListUserDto(
+            f.id, u.id, u.username, u.profilePictureUrl, u.accentColor,
+            CASE WHEN u.id = :viewerId THEN 'self'
+                 WHEN vf.id IS NULL THEN 'not-following'
+                 WHEN vf.accepted = true THEN 'following'
+                 ELSE 'requested' END)
+        FROM Follow f
+        JOIN f.following u
+        LEFT JOIN Follow vf ON vf.follower.id = :viewerId AND vf.following = u
+        WHERE f.follower.id = :userId AND f.accepted = true AND f.id < :cursor
+        ORDER BY f.id DESC
     """)
-    List<AppUser> findTopFollowedUsers(org.springframework.data.domain.Pageable pageable);
+    List<FollowListUserDto> findFollowingPage(@Param("userId") Long userId,
+                                              @Param("viewerId") Long viewerId,
+                                              @Param("cursor") Long cursor,
+                                              Pageable pageable);
 }
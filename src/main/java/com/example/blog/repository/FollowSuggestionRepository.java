@@ -0,0 +1,33 @@
+package com.example.blog.repository;
+
+import com.example.blog.dto.SuggestedUserDto;
+import com.example.blog.entity.FollowSuggestion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface FollowSuggestionRepository extends JpaRepository<FollowSuggestion, Long> {
+
+    // Precomputed suggestions for one user, in rank order (served by idx_follow_suggestions_user_position)
+    @Query("""
+        SELECT new com.example.blog.dto.SuggestedUserDto(u.id, u.username, u.fullName, u.profilePictureUrl, u.accentColor)
+        FROM FollowSuggestion s
+        JOIN AppUser u ON u.id = s.suggestedUserId
+        WHERE s.userId = :userId AND u.banned = false
+        ORDER BY s.position ASC
+    """)
+    List<SuggestedUserDto> findSuggestedUsers(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM FollowSuggestion s WHERE s.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // Rows left behind by users that were not refreshed in the last full run (e.g. deleted accounts)
+    @Modifying
+    @Query("DELETE FROM FollowSuggestion s WHERE s.computedAt < :cutoff")
+    int deleteComputedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
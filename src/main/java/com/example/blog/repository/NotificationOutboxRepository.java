@@ -0,0 +1,39 @@
+package com.example.blog.repository;
+
+import com.example.blog.entity.NotificationOutbox;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // Due rows (pending, or in flight with an expired lease), locked so concurrent relays skip each other's rows
+    @Query(value = """
+        SELECT * FROM notification_outbox
+        WHERE status IN ('PENDING', 'IN_FLIGHT')
+          AND next_attempt_at <= :now
+        ORDER BY id
+        LIMIT :batchSize
+        FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<NotificationOutbox> lockDueBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+
+    // Row lock for recording an outcome, so it cannot interleave with a re-claim of the same row
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM NotificationOutbox o WHERE o.id = :id")
+    Optional<NotificationOutbox> lockById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM NotificationOutbox o WHERE o.status = :status AND o.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("status") NotificationOutbox.Status status,
+                              @Param("cutoff") LocalDateTime cutoff);
+}
@@ -5,7 +5,13 @@ import com.example.blog.entity.Follow;
 import com.example.blog.entity.Notification;
 import com.example.blog.entity.NotificationType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalLong;
@@ -27,4 +33,35 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     List<Notification> findByFollowAndType(Follow follow, NotificationType type);
     List<Notification> findAllByFollow_Id(Long followId);
 
+    // Bulk follow-request handling: one statement for the whole set of follows
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.follow.id IN :followIds AND n.isRead = false")
+    int markReadForFollowIds(@Param("followIds") Collection<Long> followIds);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.follow.id IN :followIds")
+    int deleteForFollowIds(@Param("followIds") Collection<Long> followIds);
+
+    // Replay for SSE reconnects (Last-Event-ID), oldest first
+    List<Notification> findTop100ByRecipientAndIdGreaterThanOrderByIdAsc(AppUser recipient, Long id);
+
+    // Retention sweep: deletes at most :batchSize of the oldest matching rows per call,
+    // each call in its own short transaction so row locks are held only briefly
+    @Modifying
+    @Transactional
+    @Query(value = """
+        DELETE FROM notifications
+        WHERE id IN (
+            SELECT id FROM notifications
+            WHERE type = :type
+              AND is_read = :read
+              AND created_at < :cutoff
+            ORDER BY id
+            LIMIT :batchSize
+        )
+    """, nativeQuery = true)
+    int deleteExpiredBatch(@Param("type") String type,
+                           @Param("read") boolean read,
+                           @Param("cutoff") LocalDateTime cutoff,
+                           @Param("batchSize") int batchSize);
 }
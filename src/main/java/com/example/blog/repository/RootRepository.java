@@ -2,9 +2,14 @@ package com.example.blog.repository;
 
 import com.example.blog.entity.Root;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface RootRepository extends JpaRepository<Root, Long> {
     List<Root> findByUserIdOrderByPositionAsc(Long userId);
+
+    // Every root as [userId, trackId], used by the suggestion job
+    @Query("SELECT r.user.id, r.trackId FROM Root r")
+    List<Object[]> findAllUserTracks();
 }
@@ -0,0 +1,22 @@
+package com.example.blog.repository;
+
+import com.example.blog.entity.StoryArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface StoryArchiveRepository extends JpaRepository<StoryArchive, Long> {
+
+    List<StoryArchive> findByAuthorIdOrderByCreatedAtDesc(Long authorId);
+
+    // Media keys of an author's archive, for cleanup when the account is deleted
+    @Query("SELECT a.s3Key FROM StoryArchive a WHERE a.authorId = :authorId AND a.s3Key IS NOT NULL AND a.s3Key <> ''")
+    List<String> findS3KeysByAuthorId(@Param("authorId") Long authorId);
+
+    @Modifying
+    @Query("DELETE FROM StoryArchive a WHERE a.authorId = :authorId")
+    int deleteByAuthorId(@Param("authorId") Long authorId);
+}
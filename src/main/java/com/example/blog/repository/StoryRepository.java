@@ -3,12 +3,16 @@ package com.example.blog.repository;
 import com.example.blog.entity.Story;
 import com.example.blog.entity.AppUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface StoryRepository extends JpaRepository<Story, Long> {
@@ -33,6 +37,75 @@ public interface StoryRepository extends JpaRepository<Story, Long> {
     """)
     List<Story> findByExpiresAtAfterOrderByCreatedAtAsc(@Param("now") LocalDateTime now);
 
+    /**
+     * Active stories visible to the viewer: their own plus those of users they follow
+     * (accepted), minus authors on either side of a block. Each row is
+     * [Story (author fetched), Boolean viewedByViewer], oldest first.
+     */
+    @Query("""
+        SELECT s,
+               CASE WHEN EXISTS (
+                   SELECT 1 FROM Story sv JOIN sv.viewers v WHERE sv.id = s.id AND v.id = :viewerId
+               ) THEN true ELSE false END
+        FROM Story s JOIN FETCH s.author a
+        WHERE s.expiresAt > :now
+          AND s.flagCount < 3
+          AND (a.id = :viewerId OR EXISTS (
+                SELECT 1 FROM Follow f
+                WHERE f.follower.id = :viewerId AND f.following.id = a.id AND f.accepted = true))
+          AND NOT EXISTS (
+                SELECT 1 FROM Block b
+                WHERE (b.blocker.id = :viewerId AND b.blocked.id = a.id)
+                   OR (b.blocker.id = a.id AND b.blocked.id = :viewerId))
+        ORDER BY s.createdAt ASC
+    """)
+    List<Object[]> findActiveForViewer(@Param("viewerId") Long viewerId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT s.author.id FROM Story s WHERE s.id = :id")
+    Optional<Long> findAuthorIdById(@Param("id") Long id);
+
+    // --- Reaper (set-based, by id batch) ---
+
+    // Expired stories not referenced by a flag (those stay for moderation), skipping
+    // excludedIds (rows this pass already kept): id, s3_key, whether the author archives stories
+    @Query(value = """
+        SELECT s.id, s.s3_key, u.story_archive_enabled
+        FROM story s JOIN app_user u ON u.id = s.author_id
+        WHERE s.expires_at < :cutoff
+          AND s.id NOT IN (:excludedIds)
+          AND NOT EXISTS (SELECT 1 FROM flag f WHERE f.story_id = s.id)
+        ORDER BY s.expires_at
+        LIMIT :batchSize
+    """, nativeQuery = true)
+    List<Object[]> findReapableBatch(@Param("cutoff") LocalDateTime cutoff,
+                                     @Param("excludedIds") Collection<Long> excludedIds,
+                                     @Param("batchSize") int batchSize);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO story_archive (story_id, author_id, track_id, track_name, artist_name, album_art_url,
+                                   apple_preview_url, content_url, s3_key, type, caption, created_at,
+                                   expires_at, archived_at)
+        SELECT s.id, s.author_id, s.track_id, s.track_name, s.artist_name, s.album_art_url,
+               s.apple_preview_url, s.content_url, s.s3_key, s.type, s.caption, s.created_at,
+               s.expires_at, :now
+        FROM story s
+        WHERE s.id IN (:ids)
+        ON CONFLICT (story_id) DO NOTHING
+    """, nativeQuery = true)
+    int archiveByIds(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM story_views WHERE story_id IN (:ids)", nativeQuery = true)
+    int deleteViewsByStoryIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM story WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
     // Optional: get all stories excluding ones the given user has viewed, oldest first, and not heavily flagged
     @Query("""
         SELECT s FROM Story s
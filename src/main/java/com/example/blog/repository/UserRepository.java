@@ -1,17 +1,145 @@
 package com.example.blog.repository;
 
+import com.example.blog.dto.SuggestedUserDto;
+import com.example.blog.dto.UserProfileView;
 import com.example.blog.entity.AppUser;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<AppUser, Long> {
     Optional<AppUser> findByUsername(String username);
     Optional<AppUser> findByEmail(String email);
+    boolean existsByUsername(String username);
+    boolean existsByEmail(String email);
     List<AppUser> findTop5ByUsernameContainingIgnoreCase(String username);
     Optional<AppUser> findByVerificationToken(String token);
     Optional<AppUser> findByPasswordResetToken(String token);
     List<AppUser> findTop5ByProfilePictureUrlIsNotNullAndProfilePictureUrlNotAndBannedFalse(String empty, Pageable pageable);
+
+    @Query("SELECT u.id FROM AppUser u WHERE u.banned = false")
+    List<Long> findActiveUserIds();
+
+    @Query("SELECT u.id FROM AppUser u WHERE u.banned = true")
+    List<Long> findBannedUserIds();
+
+    // Profile read model: plain columns only, no entity or collections loaded
+    @Query("""
+        SELECT u.id AS id, u.fullName AS fullName, u.email AS email, u.username AS username, u.bio AS bio,
+               u.joinedAt AS joinedAt, u.profilePictureUrl AS profilePictureUrl, u.role AS role,
+               u.followerCount AS followerCount, u.followingCount AS followingCount, u.accentColor AS accentColor,
+               u.spotifyConnected AS spotifyConnected, u.isProfilePublic AS profilePublic,
+               u.branchCount AS branchCount, u.spotifyPremium AS spotifyPremium, u.referredBy AS referredBy,
+               u.pushSubscriptionEndpoint AS pushSubscriptionEndpoint,
+               u.pushSubscriptionKeysP256dh AS pushSubscriptionKeysP256dh,
+               u.pushSubscriptionKeysAuth AS pushSubscriptionKeysAuth,
+               u.apnDeviceToken AS apnDeviceToken, u.banned AS banned
+        FROM AppUser u
+        WHERE u.username = :username
+    """)
+    Optional<UserProfileView> findProfileViewByUsername(@Param("username") String username);
+
+    // Availability filter source: username, email
+    @Query("SELECT u.username, u.email FROM AppUser u")
+    List<Object[]> findAllUsernamesAndEmails();
+
+    // Search index source: id, username, fullName, followerCount
+    @Query("SELECT u.id, u.username, u.fullName, u.followerCount FROM AppUser u WHERE u.banned = false")
+    List<Object[]> findSearchableUsers();
+
+    // Referral leaderboard reconciliation: referrer username, profilePictureUrl, referral count
+    @Query("""
+        SELECT r.username, r.profilePictureUrl, COUNT(u)
+        FROM AppUser u JOIN AppUser r ON u.referredBy = r.username
+        GROUP BY r.username, r.profilePictureUrl
+    """)
+    List<Object[]> findReferralCounts();
+
+    // Same, for the given referrers only; referrers with no referrals are absent
+    @Query("""
+        SELECT r.username, r.profilePictureUrl, COUNT(u)
+        FROM AppUser u JOIN AppUser r ON u.referredBy = r.username
+        WHERE r.username IN :usernames
+        GROUP BY r.username, r.profilePictureUrl
+    """)
+    List<Object[]> findReferralCountsFor(@Param("usernames") Collection<String> usernames);
+
+    @Query("SELECT u.username, u.profilePictureUrl FROM AppUser u ORDER BY u.id")
+    List<Object[]> findReferralPadding(Pageable pageable);
+
+    // Leaderboard source, served by idx_app_user_follower_count
+    @Query("""
+        SELECT new com.example.blog.dto.SuggestedUserDto(u.id, u.username, u.fullName, u.profilePictureUrl, u.accentColor)
+        FROM AppUser u
+        WHERE u.banned = false
+        ORDER BY u.followerCount DESC, u.id ASC
+    """)
+    List<SuggestedUserDto> findMostFollowed(Pageable pageable);
+
+    // --- Follow counters (columns are read-only to entity saves, so these are the only writers) ---
+
+    @Query("SELECT u.followerCount FROM AppUser u WHERE u.id = :id")
+    Optional<Integer> findFollowerCountById(@Param("id") Long id);
+
+    @Query("SELECT u.followingCount FROM AppUser u WHERE u.id = :id")
+    Optional<Integer> findFollowingCountById(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "UPDATE app_user SET follower_count = GREATEST(follower_count + :delta, 0) WHERE id = :id", nativeQuery = true)
+    int adjustFollowerCount(@Param("id") Long id, @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = "UPDATE app_user SET following_count = GREATEST(following_count + :delta, 0) WHERE id = :id", nativeQuery = true)
+    int adjustFollowingCount(@Param("id") Long id, @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = "UPDATE app_user SET following_count = GREATEST(following_count + :delta, 0) WHERE id IN :ids", nativeQuery = true)
+    int adjustFollowingCounts(@Param("ids") Collection<Long> ids, @Param("delta") int delta);
+
+    // Before deleting a user: their accepted follows disappear by cascade, so adjust the other side
+    @Modifying
+    @Query(value = """
+        UPDATE app_user SET follower_count = GREATEST(follower_count - 1, 0)
+        WHERE id IN (SELECT following_id FROM follows WHERE follower_id = :id AND accepted = true)
+    """, nativeQuery = true)
+    int decrementFollowerCountsOfFollowees(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = """
+        UPDATE app_user SET following_count = GREATEST(following_count - 1, 0)
+        WHERE id IN (SELECT follower_id FROM follows WHERE following_id = :id AND accepted = true)
+    """, nativeQuery = true)
+    int decrementFollowingCountsOfFollowers(@Param("id") Long id);
+
+    // Drift repair: rewrite only the rows whose counter disagrees with the follows table
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE app_user u SET follower_count = c.cnt
+        FROM (SELECT u2.id, COUNT(f.id) AS cnt
+              FROM app_user u2
+              LEFT JOIN follows f ON f.following_id = u2.id AND f.accepted = true
+              GROUP BY u2.id) c
+        WHERE u.id = c.id AND u.follower_count <> c.cnt
+    """, nativeQuery = true)
+    int reconcileFollowerCounts();
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE app_user u SET following_count = c.cnt
+        FROM (SELECT u2.id, COUNT(f.id) AS cnt
+              FROM app_user u2
+              LEFT JOIN follows f ON f.follower_id = u2.id AND f.accepted = true
+              GROUP BY u2.id) c
+        WHERE u.id = c.id AND u.following_count <> c.cnt
+    """, nativeQuery = true)
+    int reconcileFollowingCounts();
 }
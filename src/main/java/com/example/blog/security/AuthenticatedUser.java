@@ -0,0 +1,40 @@
+package com.example.blog.security;
+
+import com.example.blog.entity.AppUser;
+import com.example.blog.entity.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Slim, immutable principal for JWT-authenticated requests. Holds only what the
+ * security layer and controllers need to identify the caller; the full AppUser
+ * is loaded on demand through {@link CurrentUser}.
+ */
+public record AuthenticatedUser(Long id, String username, Role role, boolean banned, long loadedAtMillis)
+        implements UserDetails {
+
+    public static AuthenticatedUser from(AppUser user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole(), user.isBanned(),
+                System.currentTimeMillis());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    // Token-authenticated principals never carry the password hash
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.blog.security;
+
+import com.example.blog.entity.AppUser;
+import com.example.blog.repository.UserRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * Request-scoped access to the caller. The id comes from the cached principal
+ * set by JwtAuthenticationFilter; the AppUser entity is loaded by primary key at
+ * most once per request, however many times controllers ask for it.
+ */
+@Component
+@RequestScope
+public class CurrentUser {
+
+    private final UserRepository userRepository;
+
+    private AppUser user;
+    private boolean resolved;
+
+    public CurrentUser(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /** The authenticated principal, or null for anonymous requests. */
+    public AuthenticatedUser principal() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof AuthenticatedUser principal ? principal : null;
+    }
+
+    public Long id() {
+        AuthenticatedUser principal = principal();
+        return principal != null ? principal.id() : null;
+    }
+
+    /** The caller's AppUser, or null for anonymous requests. */
+    public AppUser get() {
+        if (!resolved) {
+            Long id = id();
+            user = id != null ? userRepository.findById(id).orElse(null) : null;
+            resolved = true;
+        }
+        return user;
+    }
+
+    /** The caller's AppUser; throws if the request is anonymous or the user no longer exists. */
+    public AppUser require() {
+        AppUser current = get();
+        if (current == null) throw new RuntimeException("User not found");
+        return current;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.blog.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Thrown when the password-hashing executor is saturated; surfaces as 429 so
+ * clients back off instead of piling more work onto request threads.
+ */
+public class PasswordHashingBusyException extends ResponseStatusException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingBusyException(String reason) {
+        super(HttpStatus.TOO_MANY_REQUESTS, reason);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.blog.security;
+
+import com.example.blog.repository.UserRepository;
+import com.example.blog.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded, TTL-based cache of {@link AuthenticatedUser} snapshots keyed by
+ * username, so JwtAuthenticationFilter does not query the user table on every
+ * request. Call {@link #invalidate} whenever the password, ban state or role of
+ * a user changes, or the user is deleted.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${auth.principal-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final Map<String, AuthenticatedUser> entries;
+
+    // Bumped on every invalidation so a load that raced with a ban, delete or password change is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${auth.principal-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AuthenticatedUser> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public Optional<AuthenticatedUser> get(String username) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            AuthenticatedUser cached = entries.get(username);
+            if (cached != null && now - cached.loadedAtMillis() < ttlSeconds * 1000) return Optional.of(cached);
+        }
+
+        // Load outside the lock so a slow query never blocks other readers
+        long startGeneration = generation.get();
+        Optional<AuthenticatedUser> loaded = userRepository.findByUsername(username).map(AuthenticatedUser::from);
+        loaded.ifPresent(user -> {
+            synchronized (entries) {
+                if (generation.get() == startGeneration) entries.put(username, user);
+            }
+        });
+        return loaded;
+    }
+
+    /** Drops the snapshot now and again after the current transaction commits. */
+    public void invalidate(String username) {
+        if (username == null) return;
+        remove(username);
+        AfterCommit.run(() -> remove(username));
+    }
+
+    private void remove(String username) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(username);
+        }
+    }
+}
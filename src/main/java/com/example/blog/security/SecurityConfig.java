@@ -25,17 +25,20 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final CustomUserDetailsService customUserDetailsService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
     public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
-                          CustomUserDetailsService customUserDetailsService, JwtUtil jwtUtil) {
+                          CustomUserDetailsService customUserDetailsService, JwtUtil jwtUtil,
+                          PasswordHashingExecutor passwordHashingExecutor) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.customUserDetailsService = customUserDetailsService;
-
+        this.passwordHashingExecutor = passwordHashingExecutor;
     }
 
+    // BCrypt runs on the bounded hashing pool, never directly on Tomcat request threads
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), passwordHashingExecutor);
     }
 
     @Bean
@@ -61,7 +64,7 @@ public class SecurityConfig {
                         // Public endpoints
                         .requestMatchers(HttpMethod.POST, "/api/auth/login", "/api/auth/signup", "/api/auth/logout",
                                 "/api/auth/forgot-password", "/api/auth/reset-password", "/api/auth/refresh").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/auth/user/**", "/api/auth/verify-email", "/api/auth/referral-leaderboard", "/api/roots/**", "/api/auth/users/profiles").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/auth/user/**", "/api/auth/verify-email", "/api/auth/referral-leaderboard", "/api/auth/availability", "/api/roots/**", "/api/auth/users/profiles").permitAll()
                         .requestMatchers("/auth/spotify/login", "/auth/spotify/callback").permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/error").permitAll()
@@ -71,6 +74,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.DELETE, "/api/auth/user/**").authenticated()
                         .requestMatchers("/api/follow/**").authenticated()
                         .requestMatchers(HttpMethod.POST, "/api/posts").authenticated()
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
 
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,84 @@
+package com.example.blog.service;
+
+import com.example.blog.repository.BlockRepository;
+import com.example.blog.util.SortedLongArrays;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded LRU of each user's block relationships as sorted long[] sets:
+ * who they blocked and who blocked them. Entries are dropped by BlockService
+ * after a block/unblock commits and expire after a TTL so other nodes catch up.
+ */
+@Component
+public class BlockCache {
+
+    public record BlockSets(long[] blocked, long[] blockedBy, long loadedAtMillis) {
+
+        public boolean hasBlocked(long userId) {
+            return SortedLongArrays.contains(blocked, userId);
+        }
+
+        public boolean isBlockedBy(long userId) {
+            return SortedLongArrays.contains(blockedBy, userId);
+        }
+    }
+
+    private final BlockRepository blockRepository;
+
+    @Value("${blocks.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final Map<Long, BlockSets> entries;
+
+    // Bumped on every invalidation so a load that raced with a block change is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public BlockCache(BlockRepository blockRepository,
+                      @Value("${blocks.cache.max-users:50000}") int maxUsers) {
+        this.blockRepository = blockRepository;
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, BlockSets> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    public BlockSets get(long userId) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            BlockSets cached = entries.get(userId);
+            if (cached != null && now - cached.loadedAtMillis() < ttlSeconds * 1000) return cached;
+        }
+
+        // Load outside the lock so a slow query never blocks other readers
+        long startGeneration = generation.get();
+        BlockSets loaded = new BlockSets(
+                toSet(blockRepository.findBlockedIdsByBlockerId(userId)),
+                toSet(blockRepository.findBlockerIdsByBlockedId(userId)),
+                now);
+        synchronized (entries) {
+            if (generation.get() == startGeneration) entries.put(userId, loaded);
+        }
+        return loaded;
+    }
+
+    public void invalidate(long... userIds) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            for (long userId : userIds) entries.remove(userId);
+        }
+    }
+
+    private static long[] toSet(List<Long> ids) {
+        long[] values = new long[ids.size()];
+        for (int i = 0; i < values.length; i++) values[i] = ids.get(i);
+        return SortedLongArrays.fromUnsorted(values, values.length);
+    }
+}
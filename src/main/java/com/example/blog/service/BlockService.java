@@ -4,19 +4,30 @@ import com.example.blog.entity.AppUser;
 import com.example.blog.entity.Block;
 import com.example.blog.repository.BlockRepository;
 import com.example.blog.repository.UserRepository;
+import com.example.blog.util.AfterCommit;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class BlockService {
 
     private final BlockRepository blockRepository;
     private final UserRepository userRepository;
+    private final BlockCache blockCache;
+    private final StoryTrayCache storyTrayCache;
+    private final FollowSuggestionJob followSuggestionJob;
 
-    public BlockService(BlockRepository blockRepository, UserRepository userRepository) {
+    public BlockService(BlockRepository blockRepository, UserRepository userRepository, BlockCache blockCache,
+                        StoryTrayCache storyTrayCache, FollowSuggestionJob followSuggestionJob) {
         this.blockRepository = blockRepository;
         this.userRepository = userRepository;
+        this.blockCache = blockCache;
+        this.storyTrayCache = storyTrayCache;
+        this.followSuggestionJob = followSuggestionJob;
     }
 
     public void blockUser(AppUser blocker, Long blockedUserId) {
@@ -26,6 +37,7 @@ public class BlockService {
         if (blockRepository.findByBlockerAndBlocked(blocker, blocked).isEmpty()) {
             Block block = Block.builder().blocker(blocker).blocked(blocked).build();
             blockRepository.save(block);
+            invalidateAfterCommit(blocker.getId(), blocked.getId());
         }
     }
 
@@ -34,14 +46,56 @@ public class BlockService {
                 .orElseThrow(() -> new RuntimeException("User to unblock not found"));
 
         blockRepository.findByBlockerAndBlocked(blocker, blocked)
-                .ifPresent(blockRepository::delete);
+                .ifPresent(block -> {
+                    blockRepository.delete(block);
+                    invalidateAfterCommit(blocker.getId(), blocked.getId());
+                });
     }
 
     public List<Block> getBlockedUsers(AppUser blocker) {
         return blockRepository.findAllByBlocker(blocker);
     }
 
+    /**
+     * True if viewer has blocked contentOwner (one direction only). Served from BlockCache.
+     */
     public boolean isBlocked(AppUser viewer, AppUser contentOwner) {
-        return blockRepository.findByBlockerAndBlocked(viewer, contentOwner).isPresent();
+        if (viewer == null || contentOwner == null) return false;
+        return blockCache.get(viewer.getId()).hasBlocked(contentOwner.getId());
+    }
+
+    /**
+     * True if either user has blocked the other.
+     */
+    public boolean isBlockedEitherWay(AppUser a, AppUser b) {
+        if (a == null || b == null) return false;
+        BlockCache.BlockSets sets = blockCache.get(a.getId());
+        return sets.hasBlocked(b.getId()) || sets.isBlockedBy(b.getId());
+    }
+
+    public BlockCache.BlockSets getBlockSets(Long userId) {
+        return blockCache.get(userId);
+    }
+
+    /**
+     * Returns the subset of authorIds the viewer may see: authors the viewer has
+     * not blocked and who have not blocked the viewer. One cache lookup for the
+     * whole batch, so fan-out loops never hit the database per item.
+     */
+    public Set<Long> filterVisible(AppUser viewer, Collection<Long> authorIds) {
+        Set<Long> visible = new HashSet<>(authorIds);
+        if (viewer == null || visible.isEmpty()) return visible;
+
+        BlockCache.BlockSets sets = blockCache.get(viewer.getId());
+        visible.removeIf(id -> id != null && (sets.hasBlocked(id) || sets.isBlockedBy(id)));
+        return visible;
+    }
+
+    private void invalidateAfterCommit(long blockerId, long blockedId) {
+        blockCache.invalidate(blockerId, blockedId);
+        // Again after commit, so a reader that reloaded mid-transaction cannot keep the old sets
+        AfterCommit.run(() -> blockCache.invalidate(blockerId, blockedId));
+        storyTrayCache.invalidateAfterCommit(blockerId, blockedId);
+        AfterCommit.run(() -> followSuggestionJob.onBlockChanged(blockerId, blockedId));
     }
 }
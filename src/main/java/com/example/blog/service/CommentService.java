@@ -8,7 +8,10 @@ import com.example.blog.entity.Post;
 import com.example.blog.repository.CommentRepository;
 import com.example.blog.repository.PostRepository;
 import com.example.blog.repository.UserRepository;
+import com.example.blog.util.LogSampler;
 import com.example.blog.util.ProfanityFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -19,25 +22,30 @@ import java.util.stream.Collectors;
 @Service
 public class CommentService {
 
+    private static final Logger log = LoggerFactory.getLogger(CommentService.class);
+
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
     private final ProfanityFilter profanityFilter;
     private final BlockService blockService;
+    private final LogSampler logSampler;
 
 
     public CommentService(CommentRepository commentRepository,
                           PostRepository postRepository,
                           UserRepository userRepository,
                           NotificationService notificationService,
-                          ProfanityFilter profanityFilter, BlockService blockService) {
+                          ProfanityFilter profanityFilter, BlockService blockService,
+                          LogSampler logSampler) {
         this.commentRepository = commentRepository;
         this.postRepository = postRepository;
         this.userRepository = userRepository;
         this.notificationService = notificationService;
         this.profanityFilter = profanityFilter;
         this.blockService = blockService;
+        this.logSampler = logSampler;
     }
 
     private AppUser getCurrentUser() {
@@ -99,8 +107,13 @@ public class CommentService {
                 .author(currentUser)
                 .build();
 
-        System.out.println("💬 Adding comment by " + currentUser.getUsername() + " on post " + post.getId() +
-                " (author=" + post.getAuthor().getUsername() + ")");
+        if (logSampler.shouldLog("comments.create")) {
+            log.atInfo()
+                    .addKeyValue("postId", post.getId())
+                    .addKeyValue("commenter", currentUser.getUsername())
+                    .addKeyValue("author", post.getAuthor().getUsername())
+                    .log("Adding comment");
+        }
 
         notificationService.createNotification(
                 post.getAuthor(),
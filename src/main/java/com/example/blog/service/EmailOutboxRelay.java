@@ -0,0 +1,100 @@
+package com.example.blog.service;
+
+import com.example.blog.entity.EmailOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the email outbox: claims due rows in short transactions and hands each
+ * batch to a single JavaMailSender.send call, which delivers all of them over
+ * one SMTP connection. Per-message failures are retried with backoff.
+ */
+@Service
+public class EmailOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxRelay.class);
+
+    private final EmailOutboxService outboxService;
+    private final JavaMailSender mailSender;
+
+    @Value("${mail.outbox.batch-size:25}")
+    private int batchSize;
+
+    public EmailOutboxRelay(EmailOutboxService outboxService, JavaMailSender mailSender) {
+        this.outboxService = outboxService;
+        this.mailSender = mailSender;
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-ms:2000}")
+    public void relay() {
+        List<EmailOutbox> batch;
+        do {
+            batch = outboxService.claimBatch(batchSize);
+            if (!batch.isEmpty()) send(batch);
+        } while (batch.size() == batchSize);
+    }
+
+    @Scheduled(cron = "${mail.outbox.cleanup-cron:0 25 4 * * *}")
+    public void purgeProcessedRows() {
+        LocalDateTime now = LocalDateTime.now();
+        int sent = outboxService.purgeProcessed(EmailOutbox.Status.SENT, now.minusDays(7));
+        int dead = outboxService.purgeProcessed(EmailOutbox.Status.DEAD, now.minusDays(30));
+        log.info("Email outbox cleanup removed {} sent and {} dead-lettered rows", sent, dead);
+    }
+
+    private void send(List<EmailOutbox> batch) {
+        Map<SimpleMailMessage, EmailOutbox> rowsByMessage = new IdentityHashMap<>();
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutbox row = batch.get(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(row.getRecipient());
+            message.setSubject(row.getSubject());
+            message.setText(row.getBody());
+            messages[i] = message;
+            rowsByMessage.put(message, row);
+        }
+
+        try {
+            mailSender.send(messages);
+            outboxService.markSent(batch.stream().map(EmailOutbox::getId).toList());
+        } catch (MailSendException e) {
+            // Some messages may have gone out; only the ones listed as failed are retried
+            Map<Object, Exception> failed = e.getFailedMessages();
+            List<Long> sent = new ArrayList<>();
+            for (Map.Entry<SimpleMailMessage, EmailOutbox> entry : rowsByMessage.entrySet()) {
+                EmailOutbox row = entry.getValue();
+                Exception failure = failed.isEmpty() ? e : failed.get(entry.getKey());
+                if (failure == null) {
+                    sent.add(row.getId());
+                } else {
+                    markFailed(row, failure);
+                }
+            }
+            outboxService.markSent(sent);
+        } catch (MailException e) {
+            // Connection or authentication problem: nothing was sent
+            for (EmailOutbox row : batch) markFailed(row, e);
+        }
+    }
+
+    private void markFailed(EmailOutbox row, Exception failure) {
+        log.warn("Email send failed for outbox row {}, attempt {}: {}", row.getId(), row.getAttempts(), failure.getMessage());
+        outboxService.markFailed(row.getId(), failure.getClass().getSimpleName() + ": " + failure.getMessage(),
+                failure instanceof MailParseException);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.blog.service;
+
+import com.example.blog.entity.EmailOutbox;
+import com.example.blog.repository.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Transactional outbox for outgoing email. Callers enqueue in their own transaction
+ * and return immediately; {@link EmailOutboxRelay} claims rows in short
+ * transactions and talks to SMTP with no transaction open.
+ */
+@Service
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository outboxRepository;
+
+    @Value("${mail.outbox.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.base-backoff-seconds:30}")
+    private long baseBackoffSeconds;
+
+    public EmailOutboxService(EmailOutboxRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    @Transactional
+    public void enqueue(String to, String subject, String body) {
+        outboxRepository.save(newRow(to, subject, body, null));
+    }
+
+    /**
+     * Queues the email unless one with the same dedupKey was queued within the window.
+     * Returns whether a row was written.
+     */
+    @Transactional
+    public boolean enqueueUnlessRecent(String to, String subject, String body, String dedupKey, Duration window) {
+        outboxRepository.lockDedupKey(dedupKey);
+        if (outboxRepository.existsByDedupKeyAndCreatedAtAfter(dedupKey, LocalDateTime.now().minus(window))) {
+            return false;
+        }
+        outboxRepository.save(newRow(to, subject, body, dedupKey));
+        return true;
+    }
+
+    /**
+     * Claims up to batchSize due rows by moving them to IN_FLIGHT with a lease.
+     * If the relay dies mid-send the lease expires and the rows are picked up again.
+     */
+    @Transactional
+    public List<EmailOutbox> claimBatch(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> batch = outboxRepository.lockDueBatch(now, batchSize);
+        for (EmailOutbox row : batch) {
+            row.setStatus(EmailOutbox.Status.IN_FLIGHT);
+            row.setAttempts(row.getAttempts() + 1);
+            row.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+        }
+        return outboxRepository.saveAll(batch);
+    }
+
+    @Transactional
+    public void markSent(Collection<Long> ids) {
+        if (!ids.isEmpty()) outboxRepository.markSent(ids, LocalDateTime.now());
+    }
+
+    /**
+     * Schedules a retry with exponential backoff, or dead-letters the row when
+     * the failure is permanent or attempts are exhausted.
+     */
+    @Transactional
+    public void markFailed(Long id, String error, boolean permanent) {
+        outboxRepository.findById(id).ifPresent(row -> {
+            row.setLastError(truncate(error));
+            if (permanent || row.getAttempts() >= maxAttempts) {
+                row.setStatus(EmailOutbox.Status.DEAD);
+                row.setProcessedAt(LocalDateTime.now());
+            } else {
+                long backoff = baseBackoffSeconds << Math.min(row.getAttempts() - 1, 10);
+                row.setStatus(EmailOutbox.Status.PENDING);
+                row.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+            }
+        });
+    }
+
+    public int purgeProcessed(EmailOutbox.Status status, LocalDateTime cutoff) {
+        return outboxRepository.deleteProcessedBefore(status, cutoff);
+    }
+
+    private EmailOutbox newRow(String to, String subject, String body, String dedupKey) {
+        LocalDateTime now = LocalDateTime.now();
+        return EmailOutbox.builder()
+                .recipient(to)
+                .subject(subject)
+                .body(truncateTo(body, 4000))
+                .dedupKey(dedupKey)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+    }
+
+    private String truncate(String value) {
+        return truncateTo(value, 1000);
+    }
+
+    private String truncateTo(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
+    }
+}
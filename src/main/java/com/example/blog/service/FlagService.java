@@ -2,11 +2,11 @@ package com.example.blog.service;
 
 import com.example.blog.entity.*;
 import com.example.blog.repository.*;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import com.example.blog.security.PrincipalCache;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 @Service
@@ -16,23 +16,33 @@ public class FlagService {
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
     private final StoryRepository storyRepository;
-    private final JavaMailSender mailSender;
+    private final EmailOutboxService emailOutboxService;
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final UserSearchIndex userSearchIndex;
+    private final UserProfileCache userProfileCache;
 
     // how many flags before auto-hide
     private static final int FLAG_THRESHOLD = 3;
 
+    private static final Duration MODERATION_ALERT_DEDUP_WINDOW = Duration.ofHours(1);
+
     public FlagService(FlagRepository flagRepository,
                        PostRepository postRepository,
                        CommentRepository commentRepository,
                        StoryRepository storyRepository,
-                       JavaMailSender mailSender, UserRepository userRepostory, UserRepository userRepository) {
+                       EmailOutboxService emailOutboxService, UserRepository userRepostory, UserRepository userRepository,
+                       PrincipalCache principalCache, UserSearchIndex userSearchIndex,
+                       UserProfileCache userProfileCache) {
         this.flagRepository = flagRepository;
         this.postRepository = postRepository;
         this.commentRepository = commentRepository;
         this.storyRepository = storyRepository;
-        this.mailSender = mailSender;
+        this.emailOutboxService = emailOutboxService;
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.userSearchIndex = userSearchIndex;
+        this.userProfileCache = userProfileCache;
     }
 
     @Transactional
@@ -63,6 +73,9 @@ public class FlagService {
         if (totalFlags >= 10) {
             post.getAuthor().setBanned(true);
             userRepository.save(post.getAuthor());
+            principalCache.invalidate(post.getAuthor().getUsername());
+            userProfileCache.invalidate(post.getAuthor().getUsername());
+            userSearchIndex.onUserRemoved(post.getAuthor().getId());
         }
 
         postRepository.save(post);
@@ -97,6 +110,9 @@ public class FlagService {
         if (totalFlags >= 10) {
             comment.getAuthor().setBanned(true);
             userRepository.save(comment.getAuthor());
+            principalCache.invalidate(comment.getAuthor().getUsername());
+            userProfileCache.invalidate(comment.getAuthor().getUsername());
+            userSearchIndex.onUserRemoved(comment.getAuthor().getId());
         }
 
         commentRepository.save(comment);
@@ -131,6 +147,9 @@ public class FlagService {
         if (totalFlags >= 10) {
             story.getAuthor().setBanned(true);
             userRepository.save(story.getAuthor());
+            principalCache.invalidate(story.getAuthor().getUsername());
+            userProfileCache.invalidate(story.getAuthor().getUsername());
+            userSearchIndex.onUserRemoved(story.getAuthor().getId());
         }
 
         storyRepository.save(story);
@@ -143,10 +162,8 @@ public class FlagService {
                 " (ID: " + contentId + ") has been flagged multiple times and was auto-hidden.\n\n" +
                 "Please review it in the admin panel.";
 
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(text);
-        mailSender.send(message);
+        // One alert per piece of content per window, however many more flags arrive
+        emailOutboxService.enqueueUnlessRecent(to, subject, text,
+                "moderation:" + contentType + ":" + contentId, MODERATION_ALERT_DEDUP_WINDOW);
     }
 }
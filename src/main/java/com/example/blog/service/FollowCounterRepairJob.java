@@ -0,0 +1,42 @@
+package com.example.blog.service;
+
+import com.example.blog.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reconciles AppUser.followerCount / followingCount with the follows table.
+ * The counters are maintained incrementally by FollowService; this catches drift
+ * from crashes mid-request, manual data fixes, and the initial backfill.
+ */
+@Service
+public class FollowCounterRepairJob {
+
+    private static final Logger log = LoggerFactory.getLogger(FollowCounterRepairJob.class);
+
+    private final UserRepository userRepository;
+
+    public FollowCounterRepairJob(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void repairOnStartup() {
+        repair();
+    }
+
+    @Scheduled(cron = "${follows.counters.repair-cron:0 45 3 * * *}")
+    public void repair() {
+        int followers = userRepository.reconcileFollowerCounts();
+        int following = userRepository.reconcileFollowingCounts();
+        if (followers > 0 || following > 0) {
+            log.warn("Follow counter repair fixed {} follower counts and {} following counts", followers, following);
+        } else {
+            log.info("Follow counters are consistent");
+        }
+    }
+}
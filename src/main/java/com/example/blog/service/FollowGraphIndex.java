@@ -0,0 +1,141 @@
+package com.example.blog.service;
+
+import com.example.blog.repository.FollowRepository;
+import com.example.blog.util.AfterCommit;
+import com.example.blog.util.SortedLongArrays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory copy of the accepted follow graph, as sorted long[] adjacency arrays
+ * in both directions. Visibility checks read it instead of querying Follow.
+ *
+ * Pending requests are not indexed. The graph is loaded at startup, updated after
+ * commit by {@link FollowService}, and fully reloaded periodically to pick up
+ * changes made by other nodes or by cascading user deletes.
+ */
+@Component
+public class FollowGraphIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(FollowGraphIndex.class);
+
+    private final FollowRepository followRepository;
+
+    private volatile Map<Long, long[]> following = new ConcurrentHashMap<>();
+    private volatile Map<Long, long[]> followers = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+
+    // Updates that arrive while a reload is building new maps; replayed before the swap
+    private final Object reloadLock = new Object();
+    private List<long[]> pendingDuringReload = null;
+
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /** Notified after an edge is added or removed by a committed follow change. */
+    @FunctionalInterface
+    public interface ChangeListener {
+        void onEdgeChanged(long followerId, long followingId, boolean added);
+    }
+
+    public FollowGraphIndex(FollowRepository followRepository) {
+        this.followRepository = followRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${follows.index.reload-ms:900000}", initialDelayString = "${follows.index.reload-ms:900000}")
+    public void reload() {
+        synchronized (reloadLock) {
+            pendingDuringReload = new ArrayList<>();
+        }
+
+        List<Object[]> edges = followRepository.findAllAcceptedEdges();
+        Map<Long, long[]> out = SortedLongArrays.groupPairs(edges, 0, 1);
+        Map<Long, long[]> in = SortedLongArrays.groupPairs(edges, 1, 0);
+
+        synchronized (reloadLock) {
+            Map<Long, long[]> newFollowing = new ConcurrentHashMap<>(out);
+            Map<Long, long[]> newFollowers = new ConcurrentHashMap<>(in);
+            for (long[] op : pendingDuringReload) {
+                apply(newFollowing, newFollowers, op[0], op[1], op[2] == 1);
+            }
+            following = newFollowing;
+            followers = newFollowers;
+            pendingDuringReload = null;
+            loaded = true;
+        }
+        log.info("Follow graph index loaded: {} accepted edges, {} users following someone", edges.size(), out.size());
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean isFollowing(long followerId, long followingId) {
+        return SortedLongArrays.contains(following.get(followerId), followingId);
+    }
+
+    /** Ids the user follows (accepted only), sorted ascending. Do not modify. */
+    public long[] followingOf(long userId) {
+        return following.getOrDefault(userId, SortedLongArrays.EMPTY);
+    }
+
+    /** Ids following the user (accepted only), sorted ascending. Do not modify. */
+    public long[] followersOf(long userId) {
+        return followers.getOrDefault(userId, SortedLongArrays.EMPTY);
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /** Record an accepted follow once the surrounding transaction commits. */
+    public void onFollowAccepted(long followerId, long followingId) {
+        AfterCommit.run(() -> update(followerId, followingId, true));
+    }
+
+    /** Record a removed follow once the surrounding transaction commits. */
+    public void onFollowRemoved(long followerId, long followingId) {
+        AfterCommit.run(() -> update(followerId, followingId, false));
+    }
+
+    private void update(long followerId, long followingId, boolean add) {
+        synchronized (reloadLock) {
+            if (pendingDuringReload != null) {
+                pendingDuringReload.add(new long[]{followerId, followingId, add ? 1 : 0});
+            }
+            apply(following, followers, followerId, followingId, add);
+        }
+        for (ChangeListener listener : listeners) {
+            listener.onEdgeChanged(followerId, followingId, add);
+        }
+    }
+
+    private static void apply(Map<Long, long[]> out, Map<Long, long[]> in,
+                              long followerId, long followingId, boolean add) {
+        if (add) {
+            out.compute(followerId, (k, set) -> SortedLongArrays.insert(set, followingId));
+            in.compute(followingId, (k, set) -> SortedLongArrays.insert(set, followerId));
+        } else {
+            out.computeIfPresent(followerId, (k, set) -> emptyToNull(SortedLongArrays.remove(set, followingId)));
+            in.computeIfPresent(followingId, (k, set) -> emptyToNull(SortedLongArrays.remove(set, followerId)));
+        }
+    }
+
+    private static long[] emptyToNull(long[] set) {
+        return set.length == 0 ? null : set;
+    }
+}
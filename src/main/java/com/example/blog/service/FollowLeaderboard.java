@@ -0,0 +1,66 @@
+package com.example.blog.service;
+
+import com.example.blog.dto.SuggestedUserDto;
+import com.example.blog.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Most-followed (non-banned) users, served from memory. Rebuilt from the indexed
+ * follower_count column whenever follows have changed since the last build, and
+ * at least every few minutes to pick up bans and counter repairs.
+ */
+@Component
+public class FollowLeaderboard {
+
+    private final UserRepository userRepository;
+    private final FollowGraphIndex followGraphIndex;
+
+    @Value("${follows.leaderboard.size:50}")
+    private int size;
+
+    @Value("${follows.leaderboard.max-age-ms:600000}")
+    private long maxAgeMs;
+
+    private volatile List<SuggestedUserDto> top = List.of();
+    private volatile boolean dirty = true;
+    private volatile long builtAt = 0;
+
+    public FollowLeaderboard(UserRepository userRepository, FollowGraphIndex followGraphIndex) {
+        this.userRepository = userRepository;
+        this.followGraphIndex = followGraphIndex;
+    }
+
+    @PostConstruct
+    void registerListener() {
+        followGraphIndex.addChangeListener((followerId, followingId, added) -> dirty = true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${follows.leaderboard.refresh-ms:60000}", initialDelayString = "${follows.leaderboard.refresh-ms:60000}")
+    public void refresh() {
+        if (dirty || System.currentTimeMillis() - builtAt > maxAgeMs) rebuild();
+    }
+
+    /** Users by follower count, highest first. Immutable; do not modify the DTOs. */
+    public List<SuggestedUserDto> getTop() {
+        return top;
+    }
+
+    private void rebuild() {
+        dirty = false;
+        top = List.copyOf(userRepository.findMostFollowed(PageRequest.of(0, size)));
+        builtAt = System.currentTimeMillis();
+    }
+}
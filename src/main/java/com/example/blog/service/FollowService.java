@@ -1,10 +1,15 @@
 package com.example.blog.service;
 
+import com.example.blog.dto.FollowListUserDto;
+import com.example.blog.dto.FollowPageDto;
+import com.example.blog.dto.FollowStatusDto;
+import com.example.blog.dto.SuggestedUserDto;
 import com.example.blog.dto.UserDto;
 import com.example.blog.entity.AppUser;
 import com.example.blog.entity.Follow;
 import com.example.blog.entity.NotificationType;
 import com.example.blog.repository.FollowRepository;
+import com.example.blog.repository.FollowSuggestionRepository;
 import com.example.blog.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
@@ -12,19 +17,35 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class FollowService {
 
+    private static final int MAX_FOLLOW_PAGE_SIZE = 100;
+
     private final FollowRepository followRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final FollowGraphIndex followGraphIndex;
+    private final FollowSuggestionRepository followSuggestionRepository;
+    private final FollowSuggestionJob followSuggestionJob;
+    private final FollowLeaderboard followLeaderboard;
+    private final BlockService blockService;
 
     /**
      * Handles following a user. Supports private accounts and prevents duplicates.
      */
+    @Transactional
     public String followUser(String followerUsername, String followingUsername) {
         AppUser follower = getUserByUsername(followerUsername);
         AppUser following = getUserByUsername(followingUsername);
@@ -37,6 +58,7 @@ public class FollowService {
             // Pending request exists → cancel first
             notificationService.markFollowRequestAsReadForUser(follower, following);
             followRepository.delete(existingFollow);
+            followRepository.flush(); // delete before the re-insert below hits the unique constraint
         }
 
         Follow follow = new Follow();
@@ -58,6 +80,8 @@ public class FollowService {
             // Public account → auto accept
             follow.setAccepted(true);
             followRepository.save(follow);
+            adjustCounts(follower.getId(), following.getId(), 1);
+            followGraphIndex.onFollowAccepted(follower.getId(), following.getId());
 
             notificationService.createNotification(
                     following, follower, NotificationType.FOLLOW,null, null, null, null, null, null
@@ -89,6 +113,44 @@ public class FollowService {
                 .toList();
     }
 
+    /**
+     * Cursor page of accepted followers, projected straight to the list DTO.
+     * Pass the previous page's nextCursor to continue; viewerUsername may be null.
+     */
+    public FollowPageDto getFollowersPage(String username, String viewerUsername, Long cursor, int limit) {
+        Long userId = getUserIdByUsername(username);
+        Long viewerId = viewerUsername != null ? getUserIdByUsername(viewerUsername) : null;
+        int pageSize = clampPageSize(limit);
+
+        List<FollowListUserDto> rows = followRepository.findFollowersPage(
+                userId, viewerId, cursor != null ? cursor : Long.MAX_VALUE, PageRequest.of(0, pageSize + 1));
+        return toPage(rows, pageSize);
+    }
+
+    /**
+     * Cursor page of accepted followees, projected straight to the list DTO.
+     */
+    public FollowPageDto getFollowingPage(String username, String viewerUsername, Long cursor, int limit) {
+        Long userId = getUserIdByUsername(username);
+        Long viewerId = viewerUsername != null ? getUserIdByUsername(viewerUsername) : null;
+        int pageSize = clampPageSize(limit);
+
+        List<FollowListUserDto> rows = followRepository.findFollowingPage(
+                userId, viewerId, cursor != null ? cursor : Long.MAX_VALUE, PageRequest.of(0, pageSize + 1));
+        return toPage(rows, pageSize);
+    }
+
+    private int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_FOLLOW_PAGE_SIZE));
+    }
+
+    // One extra row is fetched to know whether another page exists
+    private FollowPageDto toPage(List<FollowListUserDto> rows, int pageSize) {
+        if (rows.size() <= pageSize) return new FollowPageDto(rows, null);
+        List<FollowListUserDto> page = rows.subList(0, pageSize);
+        return new FollowPageDto(page, page.get(pageSize - 1).getFollowId());
+    }
+
     private UserDto mapToDto(AppUser user) {
         return new UserDto(
                 user.getId(),
@@ -99,8 +161,8 @@ public class FollowService {
                 user.getJoinedAt(),
                 user.getProfilePictureUrl(),
                 user.getRole(),
-                user.getFollowers().size(), // or a query for count
-                user.getFollowing().size(), // or a query for count
+                user.getFollowerCount(),
+                user.getFollowingCount(),
                 user.getAccentColor(),
                 user.isSpotifyConnected(),
                 user.isProfilePublic(),
@@ -118,6 +180,7 @@ public class FollowService {
     /**
      * Accepts a pending follow request and marks notification as read.
      */
+    @Transactional
     public void acceptFollowRequest(Long followId, String currentUsername) {
         AppUser currentUser = getUserByUsername(currentUsername);
 
@@ -128,8 +191,12 @@ public class FollowService {
             throw new RuntimeException("Cannot accept request not sent to you");
         }
 
+        if (follow.isAccepted()) return; // already accepted, counters must not move twice
+
         follow.setAccepted(true);
         followRepository.save(follow);
+        adjustCounts(follow.getFollower().getId(), currentUser.getId(), 1);
+        followGraphIndex.onFollowAccepted(follow.getFollower().getId(), currentUser.getId());
 
         notificationService.createNotification(
                 follow.getFollower(), currentUser, NotificationType.FOLLOW_ACCEPTED,null, null, null, null, null, null
@@ -139,6 +206,58 @@ public class FollowService {
         notificationService.markFollowRequestAsReadForFollowId(followId);
     }
 
+    /**
+     * Accepts many pending requests in one transaction: one bulk UPDATE of the
+     * follows, one of the request notifications, set-based counter updates and a
+     * single batch of FOLLOW_ACCEPTED notifications. Ids that are not pending
+     * requests to the current user are skipped. The pending rows are locked when
+     * read, so every counter, graph update and notification covers exactly the
+     * rows the UPDATE changes.
+     */
+    @Transactional
+    public int acceptFollowRequests(Collection<Long> followIds, String currentUsername) {
+        AppUser currentUser = getUserByUsername(currentUsername);
+        if (followIds.isEmpty()) return 0;
+
+        List<Follow> pending = followRepository.findPendingByIdsForFollowing(followIds, currentUser.getId());
+        if (pending.isEmpty()) return 0;
+
+        List<Long> ids = pending.stream().map(Follow::getId).toList();
+        List<AppUser> requesters = pending.stream().map(Follow::getFollower).toList();
+        List<Long> requesterIds = requesters.stream().map(AppUser::getId).toList();
+
+        int accepted = followRepository.acceptAllByIds(ids);
+        userRepository.adjustFollowingCounts(requesterIds, 1);
+        userRepository.adjustFollowerCount(currentUser.getId(), accepted);
+        for (Long requesterId : requesterIds) {
+            followGraphIndex.onFollowAccepted(requesterId, currentUser.getId());
+        }
+
+        notificationService.markFollowRequestsAsReadForFollowIds(ids);
+        notificationService.createFollowAcceptedNotifications(currentUser, requesters);
+        return accepted;
+    }
+
+    /**
+     * Rejects many pending requests in one transaction with two bulk DELETEs
+     * (request notifications, then the follows). Ids that are not pending
+     * requests to the current user are skipped.
+     */
+    @Transactional
+    public int rejectFollowRequests(Collection<Long> followIds, String currentUsername) {
+        AppUser currentUser = getUserByUsername(currentUsername);
+        if (followIds.isEmpty()) return 0;
+
+        List<Long> ids = followRepository.findPendingByIdsForFollowing(followIds, currentUser.getId())
+                .stream()
+                .map(Follow::getId)
+                .toList();
+        if (ids.isEmpty()) return 0;
+
+        notificationService.deleteNotificationsForFollowIds(ids);
+        return followRepository.deletePendingByIds(ids);
+    }
+
     /**
      * Rejects a pending follow request and marks notification as read.
      */
@@ -167,6 +286,7 @@ public class FollowService {
     /**
      * Unfollows a user if a follow exists.
      */
+    @Transactional
     public void unfollowUser(String followerUsername, String followingUsername) {
         AppUser follower = getUserByUsername(followerUsername);
         AppUser following = getUserByUsername(followingUsername);
@@ -175,24 +295,41 @@ public class FollowService {
                 .ifPresent(follow -> {
                     notificationService.deleteNotificationsForFollow(follow);
                     followRepository.delete(follow);
+                    if (follow.isAccepted()) {
+                        adjustCounts(follower.getId(), following.getId(), -1);
+                        followGraphIndex.onFollowRemoved(follower.getId(), following.getId());
+                    }
                 });
     }
 
     public boolean isFollowing(String followerUsername, Long followingId) {
-        AppUser follower = getUserByUsername(followerUsername);
-        AppUser following = getUserById(followingId);
+        if (followerUsername == null || followingId == null) return false;
+        return isFollowing(getUserByUsername(followerUsername).getId(), followingId);
+    }
 
-        return followRepository.findByFollowerAndFollowing(follower, following)
-                .map(Follow::isAccepted)
-                .orElse(false);
+    /**
+     * Accepted-follow check served from the in-memory graph; falls back to the
+     * database until the index has finished its first load.
+     */
+    public boolean isFollowing(Long followerId, Long followingId) {
+        if (followerId == null || followingId == null) return false;
+        if (followGraphIndex.isLoaded()) {
+            return followGraphIndex.isFollowing(followerId, followingId);
+        }
+        return followRepository.existsByFollower_IdAndFollowing_IdAndAcceptedTrue(followerId, followingId);
     }
 
     public long getFollowerCount(Long userId) {
-        return followRepository.countByFollowing_IdAndAcceptedTrue(userId);
+        return userRepository.findFollowerCountById(userId).orElse(0);
     }
 
     public long getFollowingCount(Long userId) {
-        return followRepository.countByFollowerIdAndAcceptedTrue(userId);
+        return userRepository.findFollowingCountById(userId).orElse(0);
+    }
+
+    private void adjustCounts(Long followerId, Long followingId, int delta) {
+        userRepository.adjustFollowingCount(followerId, delta);
+        userRepository.adjustFollowerCount(followingId, delta);
     }
 
     public List<Follow> getPendingRequests(String username) {
@@ -205,6 +342,39 @@ public class FollowService {
         return followRepository.findAllByFollowerAndAcceptedFalse(user);
     }
 
+    /**
+     * Follow, request and block state of the viewer towards each of userIds, keyed
+     * by user id in request order. One IN query for follow rows; blocks and
+     * "follows you" come from memory.
+     */
+    public Map<Long, FollowStatusDto> getFollowStatuses(String viewerUsername, Collection<Long> userIds) {
+        Long viewerId = getUserIdByUsername(viewerUsername);
+        Set<Long> ids = new LinkedHashSet<>(userIds);
+        ids.remove(null);
+
+        Map<Long, Boolean> followStates = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Object[] row : followRepository.findStatesByFollowerIdAndFollowingIds(viewerId, ids)) {
+                followStates.put((Long) row[0], (Boolean) row[1]);
+            }
+        }
+        BlockCache.BlockSets blocks = blockService.getBlockSets(viewerId);
+
+        Map<Long, FollowStatusDto> result = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Boolean accepted = followStates.get(id);
+            String status = id.equals(viewerId) ? "self"
+                    : accepted == null ? "not-following"
+                    : accepted ? "following" : "requested";
+            result.put(id, new FollowStatusDto(
+                    status,
+                    isFollowing(id, viewerId),
+                    blocks.hasBlocked(id),
+                    blocks.isBlockedBy(id)));
+        }
+        return result;
+    }
+
     public String getFollowStatus(String followerUsername, Long followingId) {
         AppUser follower = getUserByUsername(followerUsername);
         AppUser following = getUserById(followingId);
@@ -229,40 +399,46 @@ public class FollowService {
     }
 
 
-    public List<AppUser> getSuggestedFollows(String username) {
+    /**
+     * Precomputed suggestions (see FollowSuggestionJob), topped up with popular
+     * accounts for users the job has not reached yet.
+     */
+    public List<SuggestedUserDto> getSuggestedFollows(String username) {
         AppUser currentUser = getUserByUsername(username);
+        Long currentUserId = currentUser.getId();
 
-        // 1. Try friends-of-friends suggestions
-        List<AppUser> suggestions = followRepository.findSuggestedFollows(currentUser);
-
-        // 2. Get users already followed by current user (map Follow -> AppUser)
-        List<AppUser> alreadyFollowing = followRepository
-                .findAllByFollowerAndAcceptedTrue(currentUser)
-                .stream()
-                .map(Follow::getFollowing) // get the followed user
-                .toList();
+        List<SuggestedUserDto> stored = followSuggestionRepository.findSuggestedUsers(currentUserId);
+        if (stored.isEmpty()) {
+            followSuggestionJob.markDirty(currentUserId);
+        }
 
-        // 3. Remove already-followed users from suggestions
-        suggestions.removeAll(alreadyFollowing);
+        // Rows can be up to a day old; drop anyone blocked or followed since they were computed
+        BlockCache.BlockSets blocks = blockService.getBlockSets(currentUserId);
+        List<SuggestedUserDto> suggestions = new ArrayList<>(stored.size());
+        for (SuggestedUserDto user : stored) {
+            if (blocks.hasBlocked(user.getId()) || blocks.isBlockedBy(user.getId())
+                    || isFollowing(currentUserId, user.getId())) {
+                continue;
+            }
+            suggestions.add(user);
+        }
 
-        // 4. Ensure at least 3 suggestions using top-followed users
+        // Ensure at least 3 suggestions using the in-memory most-followed leaderboard
         if (suggestions.size() < 3) {
-            List<AppUser> topFollowed = followRepository.findTopFollowedUsers(PageRequest.of(0, 10));
+            Set<Long> excluded = new HashSet<>();
+            excluded.add(currentUserId);
+            suggestions.forEach(s -> excluded.add(s.getId()));
 
-            // Exclude current user, already suggested, and already following
-            topFollowed.remove(currentUser);
-            topFollowed.removeAll(suggestions);
-            topFollowed.removeAll(alreadyFollowing);
-
-            for (AppUser user : topFollowed) {
+            for (SuggestedUserDto user : followLeaderboard.getTop()) {
                 if (suggestions.size() >= 3) break;
+                if (excluded.contains(user.getId()) || isFollowing(currentUserId, user.getId())
+                        || blocks.hasBlocked(user.getId()) || blocks.isBlockedBy(user.getId())) {
+                    continue;
+                }
                 suggestions.add(user);
             }
         }
 
         return suggestions;
     }
-
-
-
 }
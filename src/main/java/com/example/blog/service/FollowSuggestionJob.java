@@ -0,0 +1,304 @@
+package com.example.blog.service;
+
+import com.example.blog.entity.FollowSuggestion;
+import com.example.blog.repository.BlockRepository;
+import com.example.blog.repository.BranchRepository;
+import com.example.blog.repository.FollowRepository;
+import com.example.blog.repository.RootRepository;
+import com.example.blog.repository.UserRepository;
+import com.example.blog.util.LongIntHashMap;
+import com.example.blog.util.SortedLongArrays;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Computes ranked "people you may know" lists offline and stores them in
+ * follow_suggestions, so the suggestion endpoint is a single indexed read.
+ *
+ * Score = mutual follows (people you follow who follow them) plus shared Root
+ * tracks plus trunks you have both added branches to, each with its own weight.
+ * Users whose follow graph changed are refreshed within a minute; everyone is
+ * recomputed nightly, which also picks up Root and trunk changes.
+ */
+@Service
+public class FollowSuggestionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(FollowSuggestionJob.class);
+
+    private final FollowGraphIndex followGraphIndex;
+    private final FollowSuggestionService suggestionService;
+    private final FollowRepository followRepository;
+    private final RootRepository rootRepository;
+    private final BranchRepository branchRepository;
+    private final BlockRepository blockRepository;
+    private final UserRepository userRepository;
+
+    @Value("${follows.suggestions.per-user:20}")
+    private int perUser;
+
+    @Value("${follows.suggestions.weight.mutual:10}")
+    private int mutualWeight;
+
+    @Value("${follows.suggestions.weight.shared-root:4}")
+    private int sharedRootWeight;
+
+    @Value("${follows.suggestions.weight.shared-trunk:6}")
+    private int sharedTrunkWeight;
+
+    // Tracks or trunks shared by more users than this carry no signal and would blow up the scoring loop
+    @Value("${follows.suggestions.max-signal-fanout:1000}")
+    private int maxSignalFanout;
+
+    // When A's follows change, A's followers see different friends-of-friends too; refresh at most this many
+    @Value("${follows.suggestions.max-dirty-fanout:500}")
+    private int maxDirtyFanout;
+
+    @Value("${follows.suggestions.signals-max-age-minutes:60}")
+    private long signalsMaxAgeMinutes;
+
+    private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+    private volatile Signals signals;
+    private volatile boolean blocksChanged = false;
+
+    public FollowSuggestionJob(FollowGraphIndex followGraphIndex,
+                               FollowSuggestionService suggestionService,
+                               FollowRepository followRepository,
+                               RootRepository rootRepository,
+                               BranchRepository branchRepository,
+                               BlockRepository blockRepository,
+                               UserRepository userRepository) {
+        this.followGraphIndex = followGraphIndex;
+        this.suggestionService = suggestionService;
+        this.followRepository = followRepository;
+        this.rootRepository = rootRepository;
+        this.branchRepository = branchRepository;
+        this.blockRepository = blockRepository;
+        this.userRepository = userRepository;
+    }
+
+    @PostConstruct
+    void registerListener() {
+        followGraphIndex.addChangeListener((followerId, followingId, added) -> {
+            dirtyUsers.add(followerId);
+            long[] followersOfFollower = followGraphIndex.followersOf(followerId);
+            for (int i = 0; i < followersOfFollower.length && i < maxDirtyFanout; i++) {
+                dirtyUsers.add(followersOfFollower[i]);
+            }
+        });
+    }
+
+    /** Queue a user for the next incremental run (e.g. a new account with no rows yet). */
+    public void markDirty(Long userId) {
+        if (userId != null) dirtyUsers.add(userId);
+    }
+
+    /** Recompute both users on the next incremental run, with block pairs reloaded first. */
+    public void onBlockChanged(long blockerId, long blockedId) {
+        blocksChanged = true;
+        dirtyUsers.add(blockerId);
+        dirtyUsers.add(blockedId);
+    }
+
+    @Scheduled(fixedDelayString = "${follows.suggestions.incremental-ms:60000}", initialDelayString = "${follows.suggestions.incremental-ms:60000}")
+    public synchronized void refreshDirty() {
+        if (dirtyUsers.isEmpty() || !followGraphIndex.isLoaded()) return;
+
+        Signals current = signals;
+        if (current == null || blocksChanged || current.loadedAt().isBefore(LocalDateTime.now().minusMinutes(signalsMaxAgeMinutes))) {
+            current = loadSignals();
+        }
+
+        List<Long> batch = new ArrayList<>(dirtyUsers);
+        batch.forEach(dirtyUsers::remove);
+
+        Scorer scorer = new Scorer(current);
+        for (Long userId : batch) {
+            if (SortedLongArrays.contains(current.bannedIds(), userId)) continue;
+            suggestionService.replaceSuggestions(userId, scorer.compute(userId, LocalDateTime.now()));
+        }
+        log.info("Refreshed follow suggestions for {} users", batch.size());
+    }
+
+    @Scheduled(cron = "${follows.suggestions.full-cron:0 0 3 * * *}")
+    public synchronized void refreshAll() {
+        if (!followGraphIndex.isLoaded()) return;
+
+        long started = System.currentTimeMillis();
+        LocalDateTime runStart = LocalDateTime.now();
+        Signals current = loadSignals();
+        Scorer scorer = new Scorer(current);
+
+        List<Long> userIds = userRepository.findActiveUserIds();
+        for (Long userId : userIds) {
+            suggestionService.replaceSuggestions(userId, scorer.compute(userId, LocalDateTime.now()));
+        }
+        int stale = suggestionService.purgeComputedBefore(runStart);
+        log.info("Recomputed follow suggestions for {} users in {} ms, removed {} stale rows",
+                userIds.size(), System.currentTimeMillis() - started, stale);
+    }
+
+    private Signals loadSignals() {
+        blocksChanged = false;
+        // Intern track ids so the per-user lists are primitive
+        Map<String, Integer> trackIds = new HashMap<>();
+        List<Object[]> userTrackRows = new ArrayList<>();
+        for (Object[] row : rootRepository.findAllUserTracks()) {
+            int trackId = trackIds.computeIfAbsent((String) row[1], k -> trackIds.size());
+            userTrackRows.add(new Object[]{row[0], trackId});
+        }
+
+        List<Object[]> blockPairs = blockRepository.findAllBlockPairs();
+        List<Object[]> blocksBothWays = new ArrayList<>(blockPairs.size() * 2);
+        for (Object[] pair : blockPairs) {
+            blocksBothWays.add(pair);
+            blocksBothWays.add(new Object[]{pair[1], pair[0]});
+        }
+
+        List<Long> banned = userRepository.findBannedUserIds();
+        long[] bannedIds = new long[banned.size()];
+        for (int i = 0; i < bannedIds.length; i++) bannedIds[i] = banned.get(i);
+
+        List<Object[]> trunkRows = branchRepository.findAllTrunkContributors();
+
+        Signals loaded = new Signals(
+                SortedLongArrays.groupPairs(userTrackRows, 0, 1),
+                SortedLongArrays.groupPairs(userTrackRows, 1, 0),
+                SortedLongArrays.groupPairs(trunkRows, 1, 0),
+                SortedLongArrays.groupPairs(trunkRows, 0, 1),
+                SortedLongArrays.groupPairs(blocksBothWays, 0, 1),
+                SortedLongArrays.groupPairs(followRepository.findAllPendingEdges(), 0, 1),
+                SortedLongArrays.fromUnsorted(bannedIds, bannedIds.length),
+                LocalDateTime.now());
+        signals = loaded;
+        return loaded;
+    }
+
+    /**
+     * Read-only snapshot of the non-graph signals. Track ids are interned ints
+     * stored as longs so everything goes through SortedLongArrays.
+     */
+    private record Signals(Map<Long, long[]> tracksByUser,
+                           Map<Long, long[]> usersByTrack,
+                           Map<Long, long[]> trunksByUser,
+                           Map<Long, long[]> usersByTrunk,
+                           Map<Long, long[]> blockedEitherWay,
+                           Map<Long, long[]> pendingSent,
+                           long[] bannedIds,
+                           LocalDateTime loadedAt) {
+    }
+
+    /** Per-run scratch state; maps are reused across users to avoid reallocating. */
+    private final class Scorer {
+        private final Signals signals;
+        private final LongIntHashMap mutual = new LongIntHashMap(1024);
+        private final LongIntHashMap sharedRoots = new LongIntHashMap(256);
+        private final LongIntHashMap sharedTrunks = new LongIntHashMap(256);
+        private final long[] topIds = new long[perUser];
+        private final int[] topScores = new int[perUser];
+
+        private Scorer(Signals signals) {
+            this.signals = signals;
+        }
+
+        List<FollowSuggestion> compute(long userId, LocalDateTime now) {
+            mutual.clear();
+            sharedRoots.clear();
+            sharedTrunks.clear();
+
+            for (long followee : followGraphIndex.followingOf(userId)) {
+                for (long candidate : followGraphIndex.followingOf(followee)) {
+                    mutual.addTo(candidate, 1);
+                }
+            }
+            accumulate(userId, signals.tracksByUser(), signals.usersByTrack(), sharedRoots);
+            accumulate(userId, signals.trunksByUser(), signals.usersByTrunk(), sharedTrunks);
+
+            long[] following = followGraphIndex.followingOf(userId);
+            long[] pending = signals.pendingSent().get(userId);
+            long[] blocked = signals.blockedEitherWay().get(userId);
+
+            int[] count = {0};
+            LongIntHashMap.Entry consider = (candidate, ignored) -> {
+                if (candidate == userId
+                        || SortedLongArrays.contains(following, candidate)
+                        || SortedLongArrays.contains(pending, candidate)
+                        || SortedLongArrays.contains(blocked, candidate)
+                        || SortedLongArrays.contains(signals.bannedIds(), candidate)) {
+                    return;
+                }
+                int score = mutual.get(candidate) * mutualWeight
+                        + sharedRoots.get(candidate) * sharedRootWeight
+                        + sharedTrunks.get(candidate) * sharedTrunkWeight;
+                count[0] = offer(candidate, score, count[0]);
+            };
+            // A candidate present in several maps is offered more than once; offer() ignores repeats
+            mutual.forEach(consider);
+            sharedRoots.forEach(consider);
+            sharedTrunks.forEach(consider);
+
+            List<FollowSuggestion> rows = new ArrayList<>(count[0]);
+            for (int i = 0; i < count[0]; i++) {
+                long candidate = topIds[i];
+                rows.add(FollowSuggestion.builder()
+                        .userId(userId)
+                        .suggestedUserId(candidate)
+                        .position(i)
+                        .score(topScores[i])
+                        .mutualCount(mutual.get(candidate))
+                        .sharedRootCount(sharedRoots.get(candidate))
+                        .sharedTrunkCount(sharedTrunks.get(candidate))
+                        .computedAt(now)
+                        .build());
+            }
+            return rows;
+        }
+
+        private void accumulate(long userId, Map<Long, long[]> itemsByUser, Map<Long, long[]> usersByItem,
+                                LongIntHashMap target) {
+            long[] items = itemsByUser.get(userId);
+            if (items == null) return;
+            for (long item : items) {
+                long[] holders = usersByItem.get(item);
+                if (holders == null || holders.length > maxSignalFanout) continue;
+                for (long holder : holders) target.addTo(holder, 1);
+            }
+        }
+
+        /** Insertion into the top-K arrays, kept sorted by score descending then id ascending. */
+        private int offer(long candidate, int score, int count) {
+            for (int i = 0; i < count; i++) {
+                if (topIds[i] == candidate) return count;
+            }
+            if (count == perUser && !ranksAbove(score, candidate, topScores[count - 1], topIds[count - 1])) {
+                return count;
+            }
+            int pos = Math.min(count, perUser - 1);
+            while (pos > 0 && ranksAbove(score, candidate, topScores[pos - 1], topIds[pos - 1])) {
+                if (pos < perUser) {
+                    topIds[pos] = topIds[pos - 1];
+                    topScores[pos] = topScores[pos - 1];
+                }
+                pos--;
+            }
+            topIds[pos] = candidate;
+            topScores[pos] = score;
+            return Math.min(count + 1, perUser);
+        }
+
+        private boolean ranksAbove(int score, long id, int otherScore, long otherId) {
+            return score > otherScore || (score == otherScore && id < otherId);
+        }
+    }
+}
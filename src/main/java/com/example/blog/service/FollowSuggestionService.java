@@ -0,0 +1,37 @@
+package com.example.blog.service;
+
+import com.example.blog.entity.FollowSuggestion;
+import com.example.blog.repository.FollowSuggestionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes the precomputed suggestion rows produced by {@link FollowSuggestionJob}.
+ */
+@Service
+public class FollowSuggestionService {
+
+    private final FollowSuggestionRepository suggestionRepository;
+
+    public FollowSuggestionService(FollowSuggestionRepository suggestionRepository) {
+        this.suggestionRepository = suggestionRepository;
+    }
+
+    /**
+     * Swaps one user's suggestions in a single short transaction, so readers see
+     * either the old list or the new one.
+     */
+    @Transactional
+    public void replaceSuggestions(Long userId, List<FollowSuggestion> suggestions) {
+        suggestionRepository.deleteByUserId(userId);
+        if (!suggestions.isEmpty()) suggestionRepository.saveAll(suggestions);
+    }
+
+    @Transactional
+    public int purgeComputedBefore(LocalDateTime cutoff) {
+        return suggestionRepository.deleteComputedBefore(cutoff);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.blog.service;
+
+import com.example.blog.entity.NotificationType;
+import com.example.blog.repository.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Periodically deletes old notifications so the inbox indexes stay small.
+ *
+ * Read notifications are kept for a per-type number of days
+ * (notifications.retention.read-days, e.g. "LIKE=30,COMMENT=90").
+ * Unread notifications are kept for notifications.retention.unread-days, except
+ * FOLLOW_REQUEST, which is never removed while still unread because it is a pending action.
+ * Rows are removed in small batches so no statement holds locks for long.
+ */
+@Service
+public class NotificationCompactionService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationCompactionService.class);
+
+    private final NotificationRepository notificationRepository;
+
+    @Value("${notifications.retention.read-days:LIKE=30,FRIEND_POSTED=30,COMMENT=90,FOLLOW=90,FOLLOW_ACCEPTED=90,BRANCH_ADDED=90,FOLLOW_REQUEST=90}")
+    private String readRetentionSpec;
+
+    @Value("${notifications.retention.unread-days:365}")
+    private int unreadRetentionDays;
+
+    @Value("${notifications.retention.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${notifications.retention.batch-pause-ms:50}")
+    private long batchPauseMs;
+
+    private final Map<NotificationType, Integer> readRetentionDays = new EnumMap<>(NotificationType.class);
+
+    public NotificationCompactionService(NotificationRepository notificationRepository) {
+        this.notificationRepository = notificationRepository;
+    }
+
+    @PostConstruct
+    void parseRetention() {
+        for (String entry : readRetentionSpec.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) continue;
+            try {
+                readRetentionDays.put(NotificationType.valueOf(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring invalid notification retention entry '{}'", entry);
+            }
+        }
+    }
+
+    @Scheduled(cron = "${notifications.retention.cron:0 30 3 * * *}")
+    public void scheduledCompaction() {
+        compact();
+    }
+
+    /**
+     * Runs one full compaction pass and returns the number of rows deleted per type.
+     */
+    public Map<NotificationType, Long> compact() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<NotificationType, Long> reclaimed = new EnumMap<>(NotificationType.class);
+
+        for (Map.Entry<NotificationType, Integer> entry : readRetentionDays.entrySet()) {
+            long deleted = deleteInBatches(entry.getKey(), true, now.minusDays(entry.getValue()));
+            reclaimed.merge(entry.getKey(), deleted, Long::sum);
+        }
+
+        if (unreadRetentionDays > 0) {
+            for (NotificationType type : NotificationType.values()) {
+                if (type == NotificationType.FOLLOW_REQUEST) continue;
+                long deleted = deleteInBatches(type, false, now.minusDays(unreadRetentionDays));
+                reclaimed.merge(type, deleted, Long::sum);
+            }
+        }
+
+        long total = reclaimed.values().stream().mapToLong(Long::longValue).sum();
+        log.info("Notification compaction reclaimed {} rows: {}", total, reclaimed);
+        return reclaimed;
+    }
+
+    private long deleteInBatches(NotificationType type, boolean read, LocalDateTime cutoff) {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = notificationRepository.deleteExpiredBatch(type.name(), read, cutoff, batchSize);
+            total += deleted;
+            if (deleted == batchSize && batchPauseMs > 0) {
+                try {
+                    Thread.sleep(batchPauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } while (deleted == batchSize);
+        return total;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.blog.service;
+
+import com.example.blog.dto.NotificationDto;
+
+/**
+ * Published by {@link NotificationService} once a notification row has been saved.
+ */
+public record NotificationCreatedEvent(Long recipientId, NotificationDto notification) {
+}
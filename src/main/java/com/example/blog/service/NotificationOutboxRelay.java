@@ -0,0 +1,158 @@
+package com.example.blog.service;
+
+import com.eatthepath.pushy.apns.PushNotificationResponse;
+import com.eatthepath.pushy.apns.util.SimpleApnsPushNotification;
+import com.example.blog.entity.AppUser;
+import com.example.blog.entity.NotificationOutbox;
+import com.example.blog.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the notification outbox: claims due rows in short transactions, performs
+ * the APNs / web push calls with no transaction open, then records the outcome.
+ *
+ * Runs on its own thread rather than the shared @Scheduled one, since a batch can
+ * spend up to send-timeout-seconds per row waiting on APNs.
+ */
+@Service
+public class NotificationOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutboxRelay.class);
+
+    // APNs rejection reasons that will never succeed on retry
+    private static final Set<String> PERMANENT_APNS_REJECTIONS = Set.of(
+            "BadDeviceToken", "Unregistered", "DeviceTokenNotForTopic", "PayloadTooLarge", "TopicDisallowed");
+
+    private final NotificationOutboxService outboxService;
+    private final UserRepository userRepository;
+    private final PushService pushService; // APNs
+    private final PushNotificationService pushNotificationService; // web push (VAPID)
+
+    @Value("${notifications.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${notifications.outbox.send-timeout-seconds:10}")
+    private long sendTimeoutSeconds;
+
+    @Value("${notifications.outbox.poll-ms:1000}")
+    private long pollMs;
+
+    private final ScheduledExecutorService relayExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("notification-outbox-relay").daemon().factory());
+
+    public NotificationOutboxRelay(NotificationOutboxService outboxService,
+                                   UserRepository userRepository,
+                                   PushService pushService,
+                                   PushNotificationService pushNotificationService) {
+        this.outboxService = outboxService;
+        this.userRepository = userRepository;
+        this.pushService = pushService;
+        this.pushNotificationService = pushNotificationService;
+    }
+
+    @PostConstruct
+    void startRelay() {
+        relayExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                relay();
+            } catch (Exception e) {
+                // An escaped exception would cancel the schedule for good
+                log.error("Notification outbox relay pass failed", e);
+            }
+        }, pollMs, pollMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopRelay() {
+        relayExecutor.shutdownNow();
+    }
+
+    public void relay() {
+        List<NotificationOutbox> batch;
+        do {
+            batch = outboxService.claimBatch(batchSize);
+            for (NotificationOutbox row : batch) {
+                deliver(row);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    @Scheduled(cron = "${notifications.outbox.cleanup-cron:0 15 4 * * *}")
+    public void purgeProcessedRows() {
+        LocalDateTime now = LocalDateTime.now();
+        int done = outboxService.purgeProcessed(NotificationOutbox.Status.DONE, now.minusDays(7));
+        int dead = outboxService.purgeProcessed(NotificationOutbox.Status.DEAD, now.minusDays(30));
+        log.info("Notification outbox cleanup removed {} delivered and {} dead-lettered rows", done, dead);
+    }
+
+    private void deliver(NotificationOutbox row) {
+        Optional<AppUser> recipient = userRepository.findById(row.getRecipientId());
+        if (recipient.isEmpty()) {
+            outboxService.markDone(row, "Recipient no longer exists");
+            return;
+        }
+
+        try {
+            switch (row.getChannel()) {
+                case APNS -> deliverApns(row, recipient.get());
+                case WEB_PUSH -> deliverWebPush(row, recipient.get());
+            }
+        } catch (Exception e) {
+            log.warn("Push delivery failed for outbox row {} ({}), attempt {}: {}",
+                    row.getId(), row.getChannel(), row.getAttempts(), e.getMessage());
+            outboxService.markFailed(row, e.getClass().getSimpleName() + ": " + e.getMessage(), false);
+        }
+    }
+
+    private void deliverApns(NotificationOutbox row, AppUser recipient) throws Exception {
+        String deviceToken = recipient.getApnDeviceToken();
+        if (deviceToken == null) {
+            outboxService.markDone(row, "Recipient has no APNs device token");
+            return;
+        }
+
+        PushNotificationResponse<SimpleApnsPushNotification> response = pushService
+                .sendPush(deviceToken, row.getTitle(), row.getBody(), row.getImageUrl(), row.getUrl())
+                .get(sendTimeoutSeconds, TimeUnit.SECONDS);
+
+        if (response.isAccepted()) {
+            outboxService.markDone(row, null);
+        } else {
+            String reason = response.getRejectionReason().orElse("unknown");
+            boolean permanent = PERMANENT_APNS_REJECTIONS.contains(reason)
+                    || response.getTokenInvalidationTimestamp().isPresent();
+            outboxService.markFailed(row, "APNs rejected: " + reason, permanent);
+        }
+    }
+
+    private void deliverWebPush(NotificationOutbox row, AppUser recipient) throws Exception {
+        if (recipient.getPushSubscriptionEndpoint() == null) {
+            outboxService.markDone(row, "Recipient has no web push subscription");
+            return;
+        }
+
+        int status = pushNotificationService.deliver(recipient, row.getTitle(), row.getBody(), row.getImageUrl(), row.getUrl());
+
+        if (status >= 200 && status < 300) {
+            outboxService.markDone(row, null);
+        } else {
+            // 404/410: the subscription is gone, retrying cannot help
+            boolean permanent = status == 404 || status == 410 || status == 400 || status == 413;
+            outboxService.markFailed(row, "Web push endpoint returned HTTP " + status, permanent);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.blog.service;
+
+import com.example.blog.entity.AppUser;
+import com.example.blog.entity.Notification;
+import com.example.blog.entity.NotificationOutbox;
+import com.example.blog.repository.NotificationOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Transactional outbox for push side effects of notifications.
+ * Rows are written with the notification and claimed in short transactions by
+ * {@link NotificationOutboxRelay}, so no DB connection waits on APNs or web push.
+ */
+@Service
+public class NotificationOutboxService {
+
+    private final NotificationOutboxRepository outboxRepository;
+
+    // Margin on top of the worst-case time to deliver a claimed batch
+    @Value("${notifications.outbox.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${notifications.outbox.send-timeout-seconds:10}")
+    private long sendTimeoutSeconds;
+
+    @Value("${notifications.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${notifications.outbox.base-backoff-seconds:15}")
+    private long baseBackoffSeconds;
+
+    public NotificationOutboxService(NotificationOutboxRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    /**
+     * Queues one delivery per channel the recipient is currently subscribed to.
+     * Must run in the transaction that saves the notification.
+     */
+    @Transactional
+    public void enqueue(Notification notification, AppUser recipient,
+                        String title, String body, String imageUrl, String url) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> rows = new ArrayList<>(2);
+
+        if (recipient.getApnDeviceToken() != null) {
+            rows.add(newRow(notification, recipient, NotificationOutbox.Channel.APNS, title, body, imageUrl, url, now));
+        }
+        if (recipient.getPushSubscriptionEndpoint() != null) {
+            rows.add(newRow(notification, recipient, NotificationOutbox.Channel.WEB_PUSH, title, body, imageUrl, url, now));
+        }
+
+        if (!rows.isEmpty()) outboxRepository.saveAll(rows);
+    }
+
+    /**
+     * Same as {@link #enqueue} for many notifications sharing one payload (e.g. a
+     * bulk follow-accept), written with a single saveAll.
+     */
+    @Transactional
+    public void enqueueAll(List<Notification> notifications,
+                           String title, String body, String imageUrl, String url) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> rows = new ArrayList<>(notifications.size() * 2);
+
+        for (Notification notification : notifications) {
+            AppUser recipient = notification.getRecipient();
+            if (recipient.getApnDeviceToken() != null) {
+                rows.add(newRow(notification, recipient, NotificationOutbox.Channel.APNS, title, body, imageUrl, url, now));
+            }
+            if (recipient.getPushSubscriptionEndpoint() != null) {
+                rows.add(newRow(notification, recipient, NotificationOutbox.Channel.WEB_PUSH, title, body, imageUrl, url, now));
+            }
+        }
+
+        if (!rows.isEmpty()) outboxRepository.saveAll(rows);
+    }
+
+    /**
+     * Claims up to batchSize due rows by moving them to IN_FLIGHT with a lease.
+     * If the relay dies mid-delivery the lease expires and the rows are picked up again.
+     * Rows are delivered one after another, so the lease covers a send timeout per
+     * row plus lease-seconds; a row must not be re-claimed while still being sent.
+     */
+    @Transactional
+    public List<NotificationOutbox> claimBatch(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> batch = outboxRepository.lockDueBatch(now, batchSize);
+        LocalDateTime leaseUntil = now.plusSeconds(batch.size() * sendTimeoutSeconds + leaseSeconds);
+        for (NotificationOutbox row : batch) {
+            row.setStatus(NotificationOutbox.Status.IN_FLIGHT);
+            row.setAttempts(row.getAttempts() + 1);
+            row.setNextAttemptAt(leaseUntil);
+        }
+        return outboxRepository.saveAll(batch);
+    }
+
+    /**
+     * Records a delivered (or pointless) row. Ignored if the row was re-claimed
+     * since this attempt, so a stale relay cannot overwrite the newer outcome.
+     */
+    @Transactional
+    public void markDone(NotificationOutbox claimed, String note) {
+        lockClaimed(claimed).ifPresent(row -> {
+            row.setStatus(NotificationOutbox.Status.DONE);
+            row.setLastError(truncate(note));
+            row.setProcessedAt(LocalDateTime.now());
+        });
+    }
+
+    /**
+     * Schedules a retry with exponential backoff, or dead-letters the row when
+     * the failure is permanent or attempts are exhausted. Fenced like markDone.
+     */
+    @Transactional
+    public void markFailed(NotificationOutbox claimed, String error, boolean permanent) {
+        lockClaimed(claimed).ifPresent(row -> {
+            row.setLastError(truncate(error));
+            if (permanent || row.getAttempts() >= maxAttempts) {
+                row.setStatus(NotificationOutbox.Status.DEAD);
+                row.setProcessedAt(LocalDateTime.now());
+            } else {
+                long backoff = baseBackoffSeconds << Math.min(row.getAttempts() - 1, 10);
+                row.setStatus(NotificationOutbox.Status.PENDING);
+                row.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+            }
+        });
+    }
+
+    // The row, locked, only if it is still in flight under the attempt the caller claimed
+    private Optional<NotificationOutbox> lockClaimed(NotificationOutbox claimed) {
+        return outboxRepository.lockById(claimed.getId())
+                .filter(row -> row.getStatus() == NotificationOutbox.Status.IN_FLIGHT
+                        && row.getAttempts() == claimed.getAttempts());
+    }
+
+    public int purgeProcessed(NotificationOutbox.Status status, LocalDateTime cutoff) {
+        return outboxRepository.deleteProcessedBefore(status, cutoff);
+    }
+
+    private NotificationOutbox newRow(Notification notification, AppUser recipient, NotificationOutbox.Channel channel,
+                                      String title, String body, String imageUrl, String url, LocalDateTime now) {
+        return NotificationOutbox.builder()
+                .notificationId(notification.getId())
+                .recipientId(recipient.getId())
+                .channel(channel)
+                .title(title)
+                .body(truncateTo(body, 2000))
+                .imageUrl(imageUrl)
+                .url(url)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+    }
+
+    private String truncate(String value) {
+        return truncateTo(value, 1000);
+    }
+
+    private String truncateTo(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
+    }
+}
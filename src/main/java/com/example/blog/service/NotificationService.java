@@ -1,16 +1,19 @@
 package com.example.blog.service;
 
-import com.eatthepath.pushy.apns.util.SimpleApnsPayloadBuilder;
-import com.eatthepath.pushy.apns.util.SimpleApnsPushNotification;
-import com.eatthepath.pushy.apns.util.TokenUtil;
 import com.example.blog.dto.NotificationDto;
 import com.example.blog.entity.*;
 import com.example.blog.repository.NotificationRepository;
+import com.example.blog.util.LogSampler;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -18,12 +21,15 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class NotificationService {
 
+    private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
     private final NotificationRepository notificationRepository;
-    private final PushNotificationService pushNotificationService; // web push (VAPID)
-    private final PushService pushService; // APNs
+    private final NotificationOutboxService outboxService; // APNs + web push, delivered asynchronously
     private final UserService userService; // to fetch fresh user object
     private final BlockService blockService;
+    private final ApplicationEventPublisher eventPublisher; // live delivery to open SSE streams
+    private final LogSampler logSampler;
 
+    @Transactional
     public Notification createNotification(
             AppUser recipient,
             AppUser sender,
@@ -37,15 +43,13 @@ public class NotificationService {
     ) {
         // Skip notifications to self
         if (recipient.getId().equals(sender.getId())) {
-            System.out.println("⚠️ Skipping notification: recipient and sender are the same user: " + recipient.getUsername());
+            log.debug("Skipping notification to self for user {}", recipient.getUsername());
             return null;
         }
         if(blockService.isBlocked(sender, recipient)){
             return null;
         }
 
-        System.out.println("📩 Creating notification: type=" + type + ", recipient=" + recipient.getUsername() + ", sender=" + sender.getUsername());
-
         Notification notification = new Notification();
         notification.setRecipient(recipient);
         notification.setSender(sender);
@@ -68,7 +72,15 @@ public class NotificationService {
         }
 
         Notification saved = notificationRepository.save(notification);
-        System.out.println("✅ Notification saved with ID: " + saved.getId());
+        if (logSampler.shouldLog("notifications.create")) {
+            log.atInfo()
+                    .addKeyValue("notificationId", saved.getId())
+                    .addKeyValue("type", type)
+                    .addKeyValue("recipient", recipient.getUsername())
+                    .addKeyValue("sender", sender.getUsername())
+                    .log("Notification saved");
+        }
+        eventPublisher.publishEvent(new NotificationCreatedEvent(recipient.getId(), toDto(saved)));
 
         // Re-fetch recipient for push
         AppUser pushRecipient = userService.findById(recipient.getId())
@@ -98,41 +110,64 @@ public class NotificationService {
             default -> null;
         };
 
-        // ----------------------------
-        // APNs Push
-        // ----------------------------
-        if (pushRecipient.getApnDeviceToken() != null) {
-            System.out.println("DEBUG: APNs Token found: " + pushRecipient.getApnDeviceToken().substring(0, 10) + "...");
-            try {
-                pushService.sendPush(pushRecipient.getApnDeviceToken(), title, body, imageUrl, url)
-                        .thenAccept(response -> {
-                            if (response.isAccepted()) {
-                                System.out.println("✅ APNs push sent to " + pushRecipient.getUsername());
-                            } else {
-                                System.out.println("⚠️ APNs rejected for " + pushRecipient.getUsername() + ": " + response.getRejectionReason());
-                            }
-                        });
-            } catch (Exception e) {
-                System.err.println("❌ Error sending APNs push to " + pushRecipient.getUsername());
-                e.printStackTrace();
-            }
-        } else {
-            System.out.println("⚠️ Recipient " + pushRecipient.getUsername() + " has no APNs device token. Skipping iOS push.");
+        // Pushes are delivered by the outbox relay after commit, never while this transaction is open
+        outboxService.enqueue(saved, pushRecipient, title, body, imageUrl, url);
+
+        return saved;
+    }
+
+
+    /**
+     * Bulk variant of FOLLOW_ACCEPTED for one accepter and many requesters: all
+     * notifications are saved together and share one outbox payload, since the
+     * title, image and link are identical for every recipient.
+     */
+    @Transactional
+    public List<Notification> createFollowAcceptedNotifications(AppUser sender, List<AppUser> recipients) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> notifications = new ArrayList<>(recipients.size());
+        for (AppUser recipient : recipients) {
+            if (recipient.getId().equals(sender.getId()) || blockService.isBlocked(sender, recipient)) continue;
+
+            Notification notification = new Notification();
+            notification.setRecipient(recipient);
+            notification.setSender(sender);
+            notification.setType(NotificationType.FOLLOW_ACCEPTED);
+            notification.setRead(false);
+            notification.setCreatedAt(now);
+            notifications.add(notification);
         }
+        if (notifications.isEmpty()) return notifications;
 
-        // ----------------------------
-        // Web push (VAPID)
-        // ----------------------------
-        if (pushRecipient.getPushSubscriptionEndpoint() != null) {
-            System.out.println("🚀 Sending web push: recipient=" + pushRecipient.getUsername() + ", title=" + title + ", body=" + body + ", url=" + url);
-            pushNotificationService.sendPushNotification(pushRecipient, title, body, imageUrl, url);
-        } else {
-            System.out.println("⚠️ Recipient " + pushRecipient.getUsername() + " has no web push subscription. Skipping web push.");
+        List<Notification> saved = notificationRepository.saveAll(notifications);
+        for (Notification notification : saved) {
+            eventPublisher.publishEvent(new NotificationCreatedEvent(notification.getRecipient().getId(), toDto(notification)));
+        }
+        if (logSampler.shouldLog("notifications.create")) {
+            log.atInfo()
+                    .addKeyValue("type", NotificationType.FOLLOW_ACCEPTED)
+                    .addKeyValue("sender", sender.getUsername())
+                    .addKeyValue("count", saved.size())
+                    .log("Notifications saved");
         }
 
+        outboxService.enqueueAll(saved,
+                getNotificationTitle(NotificationType.FOLLOW_ACCEPTED, sender),
+                "",
+                sender.getProfilePictureUrl(),
+                getNotificationUrl(NotificationType.FOLLOW_ACCEPTED, null, null));
         return saved;
     }
 
+    @Transactional
+    public int markFollowRequestsAsReadForFollowIds(Collection<Long> followIds) {
+        return followIds.isEmpty() ? 0 : notificationRepository.markReadForFollowIds(followIds);
+    }
+
+    @Transactional
+    public int deleteNotificationsForFollowIds(Collection<Long> followIds) {
+        return followIds.isEmpty() ? 0 : notificationRepository.deleteForFollowIds(followIds);
+    }
 
     // -------------------------
     // Notification titles & bodies
@@ -253,21 +288,23 @@ public class NotificationService {
     }
 
     public List<NotificationDto> toDtoList(List<Notification> notifications) {
-        return notifications.stream().map(n -> {
-            NotificationDto dto = new NotificationDto();
-            dto.setId(n.getId());
-            dto.setType(n.getType().name());
-            dto.setRead(n.isRead());
-            dto.setSenderUsername(n.getSender().getUsername());
-            dto.setRecipientUsername(n.getRecipient().getUsername());
-            dto.setFollowId(n.getFollow() != null ? n.getFollow().getId() : null);
-            dto.setCreatedAt(n.getCreatedAt());
-            dto.setTrunkName(n.getTrunkName());
-            dto.setSongTitle(n.getSongTitle());
-            dto.setSongArtist(n.getSongArtist());
-            dto.setAlbumArtUrl(n.getAlbumArtUrl());
-            return dto;
-        }).collect(Collectors.toList());
+        return notifications.stream().map(this::toDto).collect(Collectors.toList());
+    }
+
+    public NotificationDto toDto(Notification n) {
+        NotificationDto dto = new NotificationDto();
+        dto.setId(n.getId());
+        dto.setType(n.getType().name());
+        dto.setRead(n.isRead());
+        dto.setSenderUsername(n.getSender().getUsername());
+        dto.setRecipientUsername(n.getRecipient().getUsername());
+        dto.setFollowId(n.getFollow() != null ? n.getFollow().getId() : null);
+        dto.setCreatedAt(n.getCreatedAt());
+        dto.setTrunkName(n.getTrunkName());
+        dto.setSongTitle(n.getSongTitle());
+        dto.setSongArtist(n.getSongArtist());
+        dto.setAlbumArtUrl(n.getAlbumArtUrl());
+        return dto;
     }
 
     @Transactional
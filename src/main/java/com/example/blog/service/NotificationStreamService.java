@@ -0,0 +1,221 @@
+package com.example.blog.service;
+
+import com.example.blog.dto.NotificationDto;
+import com.example.blog.entity.AppUser;
+import com.example.blog.repository.NotificationRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the open Server-Sent Events connections of this node and pushes new
+ * notifications to them, so web clients no longer have to poll the inbox.
+ *
+ * Event ids are notification ids: a client reconnecting with Last-Event-ID gets
+ * everything it missed replayed before live delivery resumes.
+ */
+@Service
+public class NotificationStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationStreamService.class);
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationService notificationService;
+
+    // Sends run on virtual threads so a slow client never blocks the request that created the notification
+    private final ExecutorService sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Map<Long, List<Connection>> connectionsByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    @Value("${notifications.stream.max-connections:2000}")
+    private int maxConnections;
+
+    @Value("${notifications.stream.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${notifications.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    /**
+     * One open stream. Sends are serialized by a ReentrantLock rather than a monitor,
+     * so a virtual thread blocked in a slow send does not pin its carrier. While the
+     * Last-Event-ID replay runs, live events are held back, then flushed minus any id
+     * the replay already sent; after that live events go straight out.
+     */
+    private static final class Connection {
+        final Long userId;
+        final SseEmitter emitter;
+        final ReentrantLock lock = new ReentrantLock();
+        // Guarded by lock; null once the replay has finished
+        private List<NotificationDto> heldBack = new ArrayList<>();
+
+        Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+    }
+
+    public NotificationStreamService(NotificationRepository notificationRepository,
+                                     NotificationService notificationService) {
+        this.notificationRepository = notificationRepository;
+        this.notificationService = notificationService;
+    }
+
+    public SseEmitter subscribe(AppUser user, Long lastEventId) {
+        if (openConnections.incrementAndGet() > maxConnections) {
+            openConnections.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open notification streams");
+        }
+
+        Long userId = user.getId();
+        Connection connection = new Connection(userId, new SseEmitter(timeoutMs));
+        SseEmitter emitter = connection.emitter;
+
+        // Registered before the replay query so nothing committed in between is missed;
+        // the add and the per-user cap are applied atomically for this user
+        List<Connection> evicted = new ArrayList<>();
+        connectionsByUser.compute(userId, (id, list) -> {
+            List<Connection> connections = list != null ? list : new CopyOnWriteArrayList<>();
+            connections.add(connection);
+            // A client that reconnects without its old socket being noticed as dead would otherwise pile up connections
+            while (connections.size() > maxConnectionsPerUser) {
+                evicted.add(connections.remove(0));
+            }
+            return connections;
+        });
+        for (Connection old : evicted) {
+            openConnections.decrementAndGet();
+            old.emitter.complete();
+        }
+
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+
+        try {
+            List<NotificationDto> missed = lastEventId == null ? List.of() : notificationService.toDtoList(
+                    notificationRepository.findTop100ByRecipientAndIdGreaterThanOrderByIdAsc(user, lastEventId));
+            connection.lock.lock();
+            try {
+                Set<Long> replayed = new HashSet<>();
+                if (lastEventId != null) {
+                    for (NotificationDto dto : missed) {
+                        emitter.send(toEvent(dto));
+                        replayed.add(dto.getId());
+                    }
+                } else {
+                    emitter.send(SseEmitter.event().comment("connected"));
+                }
+                for (NotificationDto dto : connection.heldBack) {
+                    if (!replayed.contains(dto.getId())) emitter.send(toEvent(dto));
+                }
+                connection.heldBack = null;
+            } finally {
+                connection.lock.unlock();
+            }
+        } catch (IOException e) {
+            remove(connection);
+            emitter.completeWithError(e);
+        }
+
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationCreated(NotificationCreatedEvent event) {
+        List<Connection> connections = connectionsByUser.get(event.recipientId());
+        if (connections == null || connections.isEmpty()) return;
+
+        for (Connection connection : connections) {
+            sendExecutor.execute(() -> deliver(connection, event.notification()));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${notifications.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        connectionsByUser.forEach((userId, connections) -> {
+            for (Connection connection : connections) {
+                sendExecutor.execute(() -> {
+                    connection.lock.lock();
+                    try {
+                        connection.emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } catch (IOException | IllegalStateException e) {
+                        drop(connection, e);
+                    } finally {
+                        connection.lock.unlock();
+                    }
+                });
+            }
+        });
+    }
+
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        connectionsByUser.values().forEach(list -> list.forEach(connection -> connection.emitter.complete()));
+        sendExecutor.shutdown();
+    }
+
+    private void deliver(Connection connection, NotificationDto dto) {
+        connection.lock.lock();
+        try {
+            if (connection.heldBack != null) {
+                connection.heldBack.add(dto);
+                return;
+            }
+            connection.emitter.send(toEvent(dto));
+        } catch (IOException | IllegalStateException e) {
+            drop(connection, e);
+        } finally {
+            connection.lock.unlock();
+        }
+    }
+
+    private void drop(Connection connection, Exception e) {
+        // Client went away; drop the connection so the slot is freed
+        remove(connection);
+        log.debug("Dropping notification stream for user {}: {}", connection.userId, e.getMessage());
+    }
+
+    private SseEmitter.SseEventBuilder toEvent(NotificationDto dto) {
+        return SseEmitter.event()
+                .id(String.valueOf(dto.getId()))
+                .name("notification")
+                .data(dto);
+    }
+
+    // Removal and dropping the emptied list happen in one compute, so a concurrent
+    // subscribe for the same user can never add to a list that is being discarded
+    private void remove(Connection connection) {
+        boolean[] removed = {false};
+        connectionsByUser.computeIfPresent(connection.userId, (id, list) -> {
+            removed[0] = list.remove(connection);
+            return list.isEmpty() ? null : list;
+        });
+        if (removed[0]) openConnections.decrementAndGet();
+    }
+}
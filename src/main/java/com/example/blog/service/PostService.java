@@ -97,7 +97,7 @@ public class PostService {
         AppUser author = userRepository.findByUsername(authorUsername)
                 .orElseThrow(() -> new RuntimeException("No user found with username: " + authorUsername));
 
-        if (!author.isProfilePublic() && (currentUser == null || !followService.isFollowing(currentUser.getUsername(), author.getId()) && !currentUser.getId().equals(author.getId()))) {
+        if (!author.isProfilePublic() && (currentUser == null || !followService.isFollowing(currentUser.getId(), author.getId()) && !currentUser.getId().equals(author.getId()))) {
             throw new RuntimeException("You are not allowed to view this user's posts");
         }
 
@@ -310,7 +310,7 @@ public class PostService {
         }
         if (author.isProfilePublic()) return true;
         if (currentUser == null) return false;
-        return currentUser.getId().equals(author.getId()) || followService.isFollowing(currentUser.getUsername(), author.getId());
+        return currentUser.getId().equals(author.getId()) || followService.isFollowing(currentUser.getId(), author.getId());
     }
 
 
@@ -359,9 +359,11 @@ public class PostService {
     }
 
     public List<PostDto> getFeedPosts(AppUser currentUser) {
-        return postRepository.findFeedPosts(currentUser)
-                .stream()
-                .filter(post -> !blockService.isBlocked(post.getAuthor(), currentUser)) // <-- filter blocked authors
+        List<Post> posts = postRepository.findFeedPosts(currentUser);
+        Set<Long> visibleAuthors = blockService.filterVisible(currentUser,
+                posts.stream().map(post -> post.getAuthor().getId()).toList());
+        return posts.stream()
+                .filter(post -> visibleAuthors.contains(post.getAuthor().getId())) // <-- filter blocked authors
                 .map(post -> PostMapper.toDto(post, currentUser))
                 .collect(Collectors.toList());
     }
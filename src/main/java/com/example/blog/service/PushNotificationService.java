@@ -2,10 +2,14 @@ package com.example.blog.service;
 
 import com.example.blog.entity.AppUser;
 import com.example.blog.repository.UserRepository;
+import com.example.blog.util.LogSampler;
 import lombok.RequiredArgsConstructor;
 import nl.martijndwars.webpush.Notification;
 import nl.martijndwars.webpush.PushService;
 import nl.martijndwars.webpush.Utils;
+import org.apache.http.HttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -18,7 +22,10 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class PushNotificationService {
 
+    private static final Logger log = LoggerFactory.getLogger(PushNotificationService.class);
+
     private final UserRepository userRepository;
+    private final LogSampler logSampler;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Value("${VAPID_PUBLIC_KEY}")
@@ -28,52 +35,74 @@ public class PushNotificationService {
     private String privateKey;
 
     public void sendPushNotification(AppUser user, String title, String body, String imageUrl, String url) {
-        System.out.println("Attempting to send push notification to user: " + user.getUsername());
-
         if (user.getPushSubscriptionEndpoint() == null ||
                 user.getPushSubscriptionKeysP256dh() == null ||
                 user.getPushSubscriptionKeysAuth() == null) {
-            System.out.println("❌ Push subscription missing for user: " + user.getUsername());
+            log.debug("Push subscription missing for user {}", user.getUsername());
             return;
         }
 
         try {
-            PushService pushService = new PushService()
-                    .setPublicKey(Utils.loadPublicKey(publicKey))
-                    .setPrivateKey(Utils.loadPrivateKey(privateKey));
+            int status = deliver(user, title, body, imageUrl, url);
+            if (logSampler.shouldLog("push.web")) {
+                log.atInfo()
+                        .addKeyValue("recipient", user.getUsername())
+                        .addKeyValue("status", status)
+                        .log("Web push sent");
+            }
+        } catch (Exception e) {
+            log.atWarn()
+                    .addKeyValue("recipient", user.getUsername())
+                    .setCause(e)
+                    .log("Web push failed");
+        }
+    }
 
-            System.out.println("✅ PushService initialized for user: " + user.getUsername());
+    /**
+     * Sends one web push and returns the push service's HTTP status.
+     * Throws on transport errors so callers (the outbox relay) can retry.
+     */
+    public int deliver(AppUser user, String title, String body, String imageUrl, String url) throws Exception {
+        if (user.getPushSubscriptionEndpoint() == null ||
+                user.getPushSubscriptionKeysP256dh() == null ||
+                user.getPushSubscriptionKeysAuth() == null) {
+            throw new IllegalStateException("Push subscription missing for user: " + user.getUsername());
+        }
 
-            // Build JSON payload
-            Map<String, String> payloadMap = new HashMap<>();
-            payloadMap.put("title", title != null ? title : "Trasora");
-            payloadMap.put("body", body != null ? body : "New activity!");
-            if (imageUrl != null) payloadMap.put("imageUrl", imageUrl);
-            payloadMap.put("url", url != null ? url : "/");
+        PushService pushService = new PushService()
+                .setPublicKey(Utils.loadPublicKey(publicKey))
+                .setPrivateKey(Utils.loadPrivateKey(privateKey));
 
-            String payload = objectMapper.writeValueAsString(payloadMap);
+        // Build JSON payload
+        Map<String, String> payloadMap = new HashMap<>();
+        payloadMap.put("title", title != null ? title : "Trasora");
+        payloadMap.put("body", body != null ? body : "New activity!");
+        if (imageUrl != null) payloadMap.put("imageUrl", imageUrl);
+        payloadMap.put("url", url != null ? url : "/");
 
-            System.out.println("Payload for user " + user.getUsername() + ": " + payload);
+        String payload = objectMapper.writeValueAsString(payloadMap);
 
-            Notification notification = new Notification(
-                    user.getPushSubscriptionEndpoint(),
-                    user.getPushSubscriptionKeysP256dh(),
-                    user.getPushSubscriptionKeysAuth(),
-                    payload
-            );
+        if (log.isDebugEnabled() && logSampler.shouldLog("push.payload")) {
+            log.atDebug()
+                    .addKeyValue("recipient", user.getUsername())
+                    .addKeyValue("payload", payload)
+                    .log("Web push payload");
+        }
 
-            pushService.send(notification);
-            System.out.println("✅ Push notification sent successfully to user: " + user.getUsername());
+        Notification notification = new Notification(
+                user.getPushSubscriptionEndpoint(),
+                user.getPushSubscriptionKeysP256dh(),
+                user.getPushSubscriptionKeysAuth(),
+                payload
+        );
 
-        } catch (Exception e) {
-            System.out.println("❌ Failed to send push notification to user: " + user.getUsername());
-            e.printStackTrace();
-        }
+        HttpResponse response = pushService.send(notification);
+        return response.getStatusLine().getStatusCode();
     }
 
     public void sendToAllUsers(String title, String body, String imageUrl, String url) {
         List<AppUser> users = userRepository.findAll();
-        System.out.println("Sending push notification to " + users.size() + " users");
+        log.info("Sending push notification to {} users", users.size());
         for (AppUser user : users) {
             sendPushNotification(user, title, body, imageUrl, url);
         }
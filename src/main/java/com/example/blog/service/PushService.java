@@ -7,6 +7,9 @@ import com.eatthepath.pushy.apns.auth.ApnsSigningKey;
 import com.eatthepath.pushy.apns.util.SimpleApnsPayloadBuilder;
 import com.eatthepath.pushy.apns.util.SimpleApnsPushNotification;
 import com.eatthepath.pushy.apns.util.TokenUtil;
+import com.example.blog.util.LogSampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -17,21 +20,25 @@ import java.util.concurrent.CompletableFuture;
 @Service
 public class PushService {
 
+    private static final Logger log = LoggerFactory.getLogger(PushService.class);
+
     private final ApnsClient apnsClient;
     private final String bundleId;
+    private final LogSampler logSampler;
 
     public PushService(
             @Value("${apns.key}") String apnKeyEnvVar,
             @Value("${apns.key-id}") String keyId,
             @Value("${apns.team-id}") String teamId,
             @Value("${apns.bundle-id}") String bundleId,
-            @Value("${apns.environment}") String environment
+            @Value("${apns.environment}") String environment,
+            LogSampler logSampler
     ) throws Exception {
         this.bundleId = bundleId;
+        this.logSampler = logSampler;
 
-        System.out.println("🔑 Original APNS key length: " + apnKeyEnvVar.length());
-        System.out.println("🔑 KeyId: " + keyId + ", TeamId: " + teamId);
-        System.out.println("🔑 Environment: " + environment);
+        log.info("Initializing APNs client: keyId={}, teamId={}, environment={}, keyLength={}",
+                keyId, teamId, environment, apnKeyEnvVar.length());
 
         // Handle both actual newlines and escaped \n from Heroku
         String formattedKey = apnKeyEnvVar.trim();
@@ -39,9 +46,9 @@ public class PushService {
         // If the key doesn't have actual newlines, try replacing escaped ones
         if (!formattedKey.contains("\n")) {
             formattedKey = formattedKey.replace("\\n", "\n");
-            System.out.println("🔄 Replaced escaped newlines");
+            log.debug("APNs key: replaced escaped newlines");
         } else {
-            System.out.println("✓ Key already has actual newlines");
+            log.debug("APNs key: already has actual newlines");
         }
 
         // Verify the key starts and ends correctly
@@ -52,8 +59,6 @@ public class PushService {
             throw new IllegalArgumentException("Key must end with -----END PRIVATE KEY-----");
         }
 
-        System.out.println("🔑 Formatted key preview:\n" + formattedKey.substring(0, Math.min(80, formattedKey.length())) + "...");
-        System.out.println("🔑 Key ends with: ..." + formattedKey.substring(Math.max(0, formattedKey.length() - 30)));
 
         ApnsClientBuilder builder = new ApnsClientBuilder()
                 .setSigningKey(ApnsSigningKey.loadFromInputStream(
@@ -63,17 +68,15 @@ public class PushService {
                 ));
 
         if ("sandbox".equalsIgnoreCase(environment)) {
-            System.out.println(environment);
             builder.setApnsServer(ApnsClientBuilder.DEVELOPMENT_APNS_HOST);
-            System.out.println("🌱 Using Sandbox APNs server");
+            log.info("Using sandbox APNs server");
         } else {
-            System.out.println(environment);
             builder.setApnsServer(ApnsClientBuilder.PRODUCTION_APNS_HOST);
-            System.out.println("🏭 Using Production APNs server");
+            log.info("Using production APNs server");
         }
 
         this.apnsClient = builder.build();
-        System.out.println("✅ APNs client initialized successfully");
+        log.info("APNs client initialized");
     }
 
     public CompletableFuture<PushNotificationResponse<SimpleApnsPushNotification>> sendPush(
@@ -111,7 +114,9 @@ public class PushService {
 
         // Build payload string
         String payload = payloadBuilder.build();
-        System.out.println("📝 APNs payload: " + payload);
+        if (log.isDebugEnabled() && logSampler.shouldLog("push.payload")) {
+            log.atDebug().addKeyValue("payload", payload).log("APNs payload");
+        }
 
         // Sanitize device token and create notification
         String token = TokenUtil.sanitizeTokenString(deviceToken);
@@ -121,14 +126,16 @@ public class PushService {
         return apnsClient.sendNotification(pushNotification)
                 .whenComplete((response, throwable) -> {
                     if (throwable != null) {
-                        System.err.println("❌ Failed APNs push:");
-                        throwable.printStackTrace();
+                        log.atWarn().setCause(throwable).log("APNs push failed");
                     } else if (response.isAccepted()) {
-                        System.out.println("✅ APNs push accepted!");
+                        if (logSampler.shouldLog("push.apns")) {
+                            log.atInfo().addKeyValue("apnsId", response.getApnsId()).log("APNs push accepted");
+                        }
                     } else {
-                        System.err.println("❌ APNs rejected: " + response.getRejectionReason());
-                        response.getTokenInvalidationTimestamp()
-                                .ifPresent(ts -> System.err.println("Token invalid as of " + ts));
+                        log.atWarn()
+                                .addKeyValue("reason", response.getRejectionReason().orElse(null))
+                                .addKeyValue("tokenInvalidSince", response.getTokenInvalidationTimestamp().orElse(null))
+                                .log("APNs push rejected");
                     }
                 });
     }
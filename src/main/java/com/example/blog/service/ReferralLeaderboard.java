@@ -0,0 +1,184 @@
+package com.example.blog.service;
+
+import com.example.blog.dto.ReferralDto;
+import com.example.blog.repository.UserRepository;
+import com.example.blog.util.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Referral counts per referrer, kept in memory and adjusted after commit whenever
+ * a user's referredBy changes, with the top N served as a prebuilt list.
+ * Reconciled periodically against a GROUP BY over AppUser to pick up deletes,
+ * renames and other nodes' writes.
+ *
+ * Deltas cannot be replayed onto the reconcile snapshot (it may already include
+ * them), so referrers touched while it is read are re-counted from the database
+ * instead, which is idempotent.
+ */
+@Component
+public class ReferralLeaderboard {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferralLeaderboard.class);
+
+    // Re-count rounds before the last one is done holding the lock
+    private static final int MAX_RECONCILE_ROUNDS = 3;
+
+    private static final class Referrer {
+        final String username;
+        int count;
+        String profilePictureUrl;
+
+        Referrer(String username, int count, String profilePictureUrl) {
+            this.username = username;
+            this.count = count;
+            this.profilePictureUrl = profilePictureUrl;
+        }
+    }
+
+    private final UserRepository userRepository;
+
+    @Value("${referrals.leaderboard.size:10}")
+    private int size;
+
+    // Guarded by this; only referrers with at least one referral
+    private Map<String, Referrer> referrers = new HashMap<>();
+    // Referrers written while a reconcile is in progress; null otherwise
+    private Set<String> touchedDuringReconcile = null;
+
+    // Users shown with 0 referrals when fewer than size users have referred anyone
+    private List<ReferralDto> padding = List.of();
+
+    private volatile List<ReferralDto> top = List.of();
+
+    public ReferralLeaderboard(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${referrals.leaderboard.reconcile-ms:600000}", initialDelayString = "${referrals.leaderboard.reconcile-ms:600000}")
+    public void reconcile() {
+        synchronized (this) {
+            touchedDuringReconcile = new HashSet<>();
+        }
+
+        Map<String, Referrer> fresh = new HashMap<>();
+        for (Object[] row : userRepository.findReferralCounts()) {
+            String username = (String) row[0];
+            fresh.put(username, new Referrer(username, ((Number) row[2]).intValue(), (String) row[1]));
+        }
+        List<ReferralDto> newPadding = userRepository.findReferralPadding(PageRequest.of(0, size)).stream()
+                .map(row -> new ReferralDto((String) row[0], 0, (String) row[1]))
+                .toList();
+
+        for (int round = 0; ; round++) {
+            Set<String> touched;
+            synchronized (this) {
+                touched = touchedDuringReconcile;
+                if (!touched.isEmpty() && round >= MAX_RECONCILE_ROUNDS) {
+                    // Writes keep arriving; settle the rest while holding off writers
+                    recount(fresh, touched);
+                    touched = Set.of();
+                }
+                if (touched.isEmpty()) {
+                    referrers = fresh;
+                    padding = newPadding;
+                    touchedDuringReconcile = null;
+                    rebuildTop();
+                    break;
+                }
+                touchedDuringReconcile = new HashSet<>();
+            }
+            recount(fresh, touched);
+        }
+        log.info("Referral leaderboard reconciled: {} referrers", fresh.size());
+    }
+
+    // Replaces the given referrers' entries in target with their current counts
+    private void recount(Map<String, Referrer> target, Set<String> usernames) {
+        usernames.forEach(target::remove);
+        for (Object[] row : userRepository.findReferralCountsFor(usernames)) {
+            String username = (String) row[0];
+            target.put(username, new Referrer(username, ((Number) row[2]).intValue(), (String) row[1]));
+        }
+    }
+
+    /** Top referrers, highest first. Immutable; do not modify the DTOs. */
+    public List<ReferralDto> getTop() {
+        return top;
+    }
+
+    /**
+     * Move one referral from previousReferrer (may be null) to newReferrer (may be null)
+     * once the surrounding transaction commits.
+     */
+    public void onReferredByChanged(String previousReferrer, String newReferrer, String newReferrerPictureUrl) {
+        if (previousReferrer != null && previousReferrer.equals(newReferrer)) return;
+        AfterCommit.run(() -> write(Arrays.asList(previousReferrer, newReferrer), () -> {
+            if (previousReferrer != null && !previousReferrer.isEmpty()) {
+                Referrer old = referrers.get(previousReferrer);
+                if (old != null && --old.count <= 0) referrers.remove(previousReferrer);
+            }
+            if (newReferrer != null && !newReferrer.isEmpty()) {
+                referrers.computeIfAbsent(newReferrer, k -> new Referrer(k, 0, newReferrerPictureUrl)).count++;
+            }
+        }));
+    }
+
+    /** Keep a referrer's picture current after a profile edit. */
+    public void onProfilePictureChanged(String username, String profilePictureUrl) {
+        AfterCommit.run(() -> write(Arrays.asList(username), () -> {
+            Referrer referrer = referrers.get(username);
+            if (referrer != null) referrer.profilePictureUrl = profilePictureUrl;
+        }));
+    }
+
+    private synchronized void write(List<String> touched, Runnable op) {
+        if (touchedDuringReconcile != null) {
+            for (String username : touched) {
+                if (username != null && !username.isEmpty()) touchedDuringReconcile.add(username);
+            }
+        }
+        op.run();
+        rebuildTop();
+    }
+
+    // Callers hold this
+    private void rebuildTop() {
+        List<Referrer> sorted = new ArrayList<>(referrers.values());
+        sorted.sort(Comparator.comparingInt((Referrer r) -> r.count).reversed()
+                .thenComparing(r -> r.username));
+
+        List<ReferralDto> result = new ArrayList<>(size);
+        Set<String> seen = new HashSet<>();
+        for (Referrer referrer : sorted) {
+            if (result.size() >= size) break;
+            result.add(new ReferralDto(referrer.username, referrer.count, referrer.profilePictureUrl));
+            seen.add(referrer.username);
+        }
+        for (ReferralDto filler : padding) {
+            if (result.size() >= size) break;
+            if (seen.add(filler.getUsername())) result.add(filler);
+        }
+        top = List.copyOf(result);
+    }
+}
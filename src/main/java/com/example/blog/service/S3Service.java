@@ -2,11 +2,17 @@ package com.example.blog.service;
 
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.core.sync.RequestBody;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class S3Service {
@@ -14,6 +20,8 @@ public class S3Service {
     private final S3Client s3Client;
     private final String bucketName = "dreamr-user-content"; // your bucket
 
+    private static final int MAX_DELETE_BATCH = 1000;
+
     public S3Service(S3Client s3Client) {
         this.s3Client = s3Client;
     }
@@ -38,6 +46,25 @@ public class S3Service {
         s3Client.deleteObject(deleteObjectRequest);
     }
 
+    /**
+     * Deletes the keys with DeleteObjects, 1000 per request (the S3 limit).
+     * Returns the keys S3 reported as not deleted; missing keys count as deleted.
+     */
+    public List<String> deleteFiles(List<String> keys) {
+        List<String> failed = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += MAX_DELETE_BATCH) {
+            List<ObjectIdentifier> objects = keys.subList(from, Math.min(from + MAX_DELETE_BATCH, keys.size())).stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
+            DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(bucketName)
+                    .delete(Delete.builder().objects(objects).quiet(true).build())
+                    .build());
+            response.errors().forEach(error -> failed.add(error.key()));
+        }
+        return failed;
+    }
+
     public String getBucketName() {
         return bucketName;
     }
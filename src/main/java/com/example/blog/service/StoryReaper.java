@@ -0,0 +1,125 @@
+package com.example.blog.service;
+
+import com.example.blog.repository.StoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Removes expired stories in bounded batches: media is deleted with S3 DeleteObjects,
+ * then story_views and story rows are deleted with one statement each per batch.
+ *
+ * Stories of authors with the archive enabled are copied to story_archive first and
+ * keep their media. Stories referenced by a flag are left for moderation. If any
+ * S3 key of a batch fails to delete, its story row is kept and retried next run;
+ * within a run kept rows are excluded from later selects, so a backlog of failing
+ * media cannot hold back the stories behind it.
+ */
+@Service
+public class StoryReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(StoryReaper.class);
+
+    public record ReapReport(long storiesDeleted, long storiesArchived, long viewsDeleted,
+                             long mediaDeleted, long mediaFailed) {
+    }
+
+    private final StoryRepository storyRepository;
+    private final S3Service s3Service;
+
+    @Value("${stories.reaper.batch-size:500}")
+    private int batchSize;
+
+    // Grace period after expiry, so a story being watched right at expiry is not pulled mid-view
+    @Value("${stories.reaper.grace-minutes:60}")
+    private long graceMinutes;
+
+    @Value("${stories.reaper.max-batches:200}")
+    private int maxBatches;
+
+    public StoryReaper(StoryRepository storyRepository, S3Service s3Service) {
+        this.storyRepository = storyRepository;
+        this.s3Service = s3Service;
+    }
+
+    @Scheduled(cron = "${stories.reaper.cron:0 */15 * * * *}")
+    public void scheduledReap() {
+        reap();
+    }
+
+    /**
+     * Runs one pass (at most max-batches batches) and returns what was reclaimed.
+     */
+    public ReapReport reap() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minusMinutes(graceMinutes);
+        long deleted = 0, archived = 0, views = 0, mediaDeleted = 0, mediaFailed = 0;
+        // -1 never matches a story id; NOT IN () is not valid SQL
+        Set<Long> keptThisRun = new HashSet<>(List.of(-1L));
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Object[]> rows = storyRepository.findReapableBatch(cutoff, keptThisRun, batchSize);
+            if (rows.isEmpty()) break;
+
+            List<Long> ids = new ArrayList<>(rows.size());
+            List<Long> archiveIds = new ArrayList<>();
+            List<String> keys = new ArrayList<>();
+            List<Long> keyOwners = new ArrayList<>();
+            for (Object[] row : rows) {
+                long id = ((Number) row[0]).longValue();
+                String s3Key = (String) row[1];
+                boolean archive = Boolean.TRUE.equals(row[2]);
+                ids.add(id);
+                if (archive) {
+                    archiveIds.add(id);
+                } else if (s3Key != null && !s3Key.isEmpty()) {
+                    keys.add(s3Key);
+                    keyOwners.add(id);
+                }
+            }
+
+            Set<Long> keep = new HashSet<>();
+            if (!keys.isEmpty()) {
+                Set<String> failed = new HashSet<>(deleteMedia(keys));
+                for (int i = 0; i < keys.size(); i++) {
+                    if (failed.contains(keys.get(i))) keep.add(keyOwners.get(i));
+                }
+                mediaDeleted += keys.size() - failed.size();
+                mediaFailed += failed.size();
+            }
+            if (!keep.isEmpty()) {
+                ids.removeIf(keep::contains);
+                keptThisRun.addAll(keep);
+            }
+
+            if (!archiveIds.isEmpty()) archived += storyRepository.archiveByIds(archiveIds, now);
+            if (!ids.isEmpty()) {
+                views += storyRepository.deleteViewsByStoryIds(ids);
+                deleted += storyRepository.deleteByIds(ids);
+            }
+
+            if (rows.size() < batchSize) break;
+        }
+
+        ReapReport report = new ReapReport(deleted, archived, views, mediaDeleted, mediaFailed);
+        if (deleted > 0 || mediaFailed > 0) log.info("Story reaper: {}", report);
+        return report;
+    }
+
+    private List<String> deleteMedia(List<String> keys) {
+        try {
+            return s3Service.deleteFiles(keys);
+        } catch (Exception e) {
+            log.warn("Story reaper could not delete {} media objects: {}", keys.size(), e.getMessage());
+            return keys;
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package com.example.blog.service;
 
 import com.example.blog.dto.StoryDto;
+import com.example.blog.dto.StoryTrayDto;
 import com.example.blog.entity.AppUser;
-import com.example.blog.entity.Follow;
 import com.example.blog.entity.Story;
+import com.example.blog.repository.StoryArchiveRepository;
 import com.example.blog.repository.StoryRepository;
 import com.example.blog.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -13,7 +14,11 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,28 +29,55 @@ public class StoryService {
     private final StoryRepository storyRepository;
     private final UserRepository userRepository;
     private final S3Service s3Service;
-    private final BlockService blockService;
+    private final StoryViewBuffer storyViewBuffer;
+    private final StoryArchiveRepository storyArchiveRepository;
+    private final StoryTrayCache storyTrayCache;
 
     public List<StoryDto> getActiveStories(AppUser currentUser) {
         if (currentUser == null) throw new RuntimeException("Current user cannot be null");
 
-        LocalDateTime now = LocalDateTime.now();
-        List<AppUser> followedUsers = currentUser.getFollowing()
-                .stream()
-                .map(Follow::getFollowing)
-                .toList();
+        long viewerId = currentUser.getId();
+        return storyTrayCache.get(viewerId, () -> loadActiveStories(viewerId));
+    }
 
-        List<Story> activeStories = storyRepository.findByExpiresAtAfterOrderByCreatedAtAsc(now);
-        List<Story> filteredStories = activeStories.stream()
-                .filter(story -> (followedUsers.contains(story.getAuthor())
-                        || story.getAuthor().equals(currentUser))
-                        // Filter out stories where the author blocked the current user
-                        && !blockService.isBlocked(story.getAuthor(), currentUser))
+    private List<StoryDto> loadActiveStories(long viewerId) {
+        return storyRepository.findActiveForViewer(viewerId, LocalDateTime.now()).stream()
+                .map(row -> {
+                    Story story = (Story) row[0];
+                    // Views still in the write-behind buffer count as seen
+                    boolean viewed = (Boolean) row[1] || storyViewBuffer.isPending(story.getId(), viewerId);
+                    return convertToDto(story, viewed);
+                })
                 .toList();
+    }
 
-        return filteredStories.stream()
-                .map(this::convertToDto)
-                .toList();
+    /**
+     * Active stories grouped by author: the viewer's own bubble first, then authors
+     * with unviewed stories, each group ordered by its most recent story.
+     */
+    public List<StoryTrayDto> getStoryTray(AppUser currentUser) {
+        List<StoryDto> stories = getActiveStories(currentUser);
+
+        Map<Long, List<StoryDto>> byAuthor = new LinkedHashMap<>();
+        for (StoryDto story : stories) {
+            byAuthor.computeIfAbsent(story.getAuthorId(), id -> new ArrayList<>()).add(story);
+        }
+
+        List<StoryTrayDto> tray = new ArrayList<>(byAuthor.size());
+        for (List<StoryDto> authorStories : byAuthor.values()) {
+            StoryDto first = authorStories.get(0);
+            StoryDto latest = authorStories.get(authorStories.size() - 1);
+            boolean hasUnviewed = authorStories.stream().anyMatch(story -> !story.isViewed());
+            tray.add(new StoryTrayDto(first.getAuthorId(), first.getAuthorUsername(),
+                    first.getAuthorProfilePictureUrl(), hasUnviewed, latest.getCreatedAt(), authorStories));
+        }
+
+        Long viewerId = currentUser.getId();
+        tray.sort(Comparator
+                .comparing((StoryTrayDto t) -> !t.getAuthorId().equals(viewerId))
+                .thenComparing(t -> !t.isHasUnviewed())
+                .thenComparing(StoryTrayDto::getLatestCreatedAt, Comparator.reverseOrder()));
+        return tray;
     }
 
     public List<StoryDto> getUserStories(AppUser user) {
@@ -110,17 +142,62 @@ public class StoryService {
                 .build();
 
         Story savedStory = storyRepository.save(story);
+        storyTrayCache.onAuthorStoriesChanged(currentUser.getId());
         return convertToDto(savedStory);
     }
 
     public void markStoryAsViewed(Long storyId, AppUser currentUser) {
         if (currentUser == null) throw new RuntimeException("Current user cannot be null");
+        if (!storyRepository.existsById(storyId)) throw new RuntimeException("Story not found");
 
-        Story story = storyRepository.findById(storyId)
+        // Buffered and written to story_views in batches; see StoryViewBuffer
+        storyViewBuffer.record(storyId, currentUser.getId());
+        storyTrayCache.markViewed(currentUser.getId(), storyId);
+    }
+
+    /** Approximate distinct viewers of a story; only its author may ask. */
+    public long getViewCount(Long storyId, AppUser currentUser) {
+        if (currentUser == null) throw new RuntimeException("Current user cannot be null");
+
+        Long authorId = storyRepository.findAuthorIdById(storyId)
                 .orElseThrow(() -> new RuntimeException("Story not found: " + storyId));
+        if (!authorId.equals(currentUser.getId())) {
+            throw new RuntimeException("You do not have permission to view this story's views");
+        }
+        return storyViewBuffer.getViewCount(storyId);
+    }
+
+    /** Opt in or out of keeping expired stories (see StoryReaper). */
+    public void setStoryArchiveEnabled(AppUser currentUser, boolean enabled) {
+        if (currentUser == null) throw new RuntimeException("Current user cannot be null");
 
-        story.getViewers().add(currentUser);
-        storyRepository.save(story);
+        currentUser.setStoryArchiveEnabled(enabled);
+        userRepository.save(currentUser);
+    }
+
+    /** The current user's archived stories, newest first. */
+    public List<StoryDto> getArchivedStories(AppUser currentUser) {
+        if (currentUser == null) throw new RuntimeException("Current user cannot be null");
+
+        return storyArchiveRepository.findByAuthorIdOrderByCreatedAtDesc(currentUser.getId()).stream()
+                .map(archived -> StoryDto.builder()
+                        .id(archived.getStoryId())
+                        .authorId(archived.getAuthorId())
+                        .authorUsername(currentUser.getUsername())
+                        .authorProfilePictureUrl(currentUser.getProfilePictureUrl())
+                        .contentUrl(archived.getContentUrl())
+                        .trackId(archived.getTrackId())
+                        .trackName(archived.getTrackName())
+                        .artistName(archived.getArtistName())
+                        .albumArtUrl(archived.getAlbumArtUrl())
+                        .applePreviewUrl(archived.getApplePreviewUrl())
+                        .type(archived.getType())
+                        .caption(archived.getCaption())
+                        .createdAt(archived.getCreatedAt())
+                        .expiresAt(archived.getExpiresAt())
+                        .viewed(true)
+                        .build())
+                .toList();
     }
 
     public void deleteStory(Long storyId, AppUser currentUser) {
@@ -146,10 +223,15 @@ public class StoryService {
         }
 
         storyRepository.delete(story);
+        storyTrayCache.onAuthorStoriesChanged(currentUser.getId());
     }
 
 
     private StoryDto convertToDto(Story story) {
+        return convertToDto(story, false);
+    }
+
+    private StoryDto convertToDto(Story story, boolean viewed) {
         return StoryDto.builder()
                 .id(story.getId())
                 .authorId(story.getAuthor().getId())
@@ -165,7 +247,7 @@ public class StoryService {
                 .caption(story.getCaption())
                 .createdAt(story.getCreatedAt())
                 .expiresAt(story.getExpiresAt())
-                .viewed(false)
+                .viewed(viewed)
                 .build();
     }
 }
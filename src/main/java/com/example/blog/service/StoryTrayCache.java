@@ -0,0 +1,147 @@
+package com.example.blog.service;
+
+import com.example.blog.dto.StoryDto;
+import com.example.blog.util.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded LRU of each viewer's active stories (the story tray source).
+ * An entry lives until the earliest expiresAt among its stories, capped by a TTL
+ * so flags and other nodes' writes are picked up. Dropped when the viewer changes
+ * a follow or block, and for the author and all their followers when the author
+ * creates or deletes a story; views just flip the cached viewed flag.
+ */
+@Component
+public class StoryTrayCache {
+
+    private record Cached(List<StoryDto> stories, long expiresAtMillis) {
+    }
+
+    // One in-flight load; marked stale if its viewer is invalidated before it finishes
+    private static final class Load {
+        boolean stale;
+    }
+
+    private final FollowGraphIndex followGraphIndex;
+
+    @Value("${stories.tray-cache.max-ttl-seconds:300}")
+    private long maxTtlSeconds;
+
+    private final Map<Long, Cached> entries;
+
+    // Guarded by entries. Loads in progress per viewer, so an invalidation that races
+    // with a load stops that viewer's result from being cached without affecting others
+    private final Map<Long, List<Load>> loading = new HashMap<>();
+
+    public StoryTrayCache(FollowGraphIndex followGraphIndex,
+                          @Value("${stories.tray-cache.max-users:50000}") int maxUsers) {
+        this.followGraphIndex = followGraphIndex;
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Cached> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    @PostConstruct
+    void registerListener() {
+        followGraphIndex.addChangeListener((followerId, followingId, added) -> invalidate(followerId));
+    }
+
+    public List<StoryDto> get(long viewerId, Supplier<List<StoryDto>> loader) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Cached cached = entries.get(viewerId);
+            if (cached != null && now < cached.expiresAtMillis()) return cached.stories();
+        }
+
+        // Load outside the lock so a slow query never blocks other readers
+        Load load = new Load();
+        synchronized (entries) {
+            loading.computeIfAbsent(viewerId, id -> new ArrayList<>(1)).add(load);
+        }
+        List<StoryDto> loaded = null;
+        long expiresAt = now + maxTtlSeconds * 1000;
+        try {
+            loaded = List.copyOf(loader.get());
+            for (StoryDto story : loaded) {
+                if (story.getExpiresAt() != null) expiresAt = Math.min(expiresAt, toMillis(story.getExpiresAt()));
+            }
+        } finally {
+            synchronized (entries) {
+                List<Load> inFlight = loading.get(viewerId);
+                inFlight.remove(load);
+                if (inFlight.isEmpty()) loading.remove(viewerId);
+                if (loaded != null && !load.stale) entries.put(viewerId, new Cached(loaded, expiresAt));
+            }
+        }
+        return loaded;
+    }
+
+    /** Flags the story as viewed in the viewer's cached tray instead of reloading it. */
+    public void markViewed(long viewerId, long storyId) {
+        synchronized (entries) {
+            Cached cached = entries.get(viewerId);
+            if (cached == null) return;
+            for (StoryDto story : cached.stories()) {
+                if (story.getId() != null && story.getId() == storyId) story.setViewed(true);
+            }
+        }
+    }
+
+    /** Drops the viewers' entries now and again after the current transaction commits. */
+    public void invalidateAfterCommit(long... viewerIds) {
+        invalidate(viewerIds);
+        AfterCommit.run(() -> invalidate(viewerIds));
+    }
+
+    /**
+     * The author's stories changed: drop the author's tray and every follower's, after commit.
+     * Walks the follower list or the cached and loading viewers, whichever is smaller.
+     */
+    public void onAuthorStoriesChanged(long authorId) {
+        AfterCommit.run(() -> {
+            long[] followers = followGraphIndex.followersOf(authorId);
+            synchronized (entries) {
+                drop(authorId);
+                if (followers.length <= entries.size() + loading.size()) {
+                    for (long follower : followers) drop(follower);
+                } else {
+                    entries.keySet().removeIf(viewerId -> followGraphIndex.isFollowing(viewerId, authorId));
+                    loading.forEach((viewerId, loads) -> {
+                        if (followGraphIndex.isFollowing(viewerId, authorId)) loads.forEach(l -> l.stale = true);
+                    });
+                }
+            }
+        });
+    }
+
+    public void invalidate(long... viewerIds) {
+        synchronized (entries) {
+            for (long viewerId : viewerIds) drop(viewerId);
+        }
+    }
+
+    // Callers hold entries
+    private void drop(long viewerId) {
+        entries.remove(viewerId);
+        List<Load> inFlight = loading.get(viewerId);
+        if (inFlight != null) inFlight.forEach(l -> l.stale = true);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
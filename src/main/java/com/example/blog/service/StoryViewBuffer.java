@@ -0,0 +1,162 @@
+package com.example.blog.service;
+
+import com.example.blog.util.HyperLogLog;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer for story views. Recording a view only adds the
+ * (story, viewer) pair to an in-memory set and bumps a per-story HyperLogLog;
+ * a scheduled flush writes pending pairs to story_views in JDBC batches with
+ * ON CONFLICT DO NOTHING. Views are soft data: if the buffer is full, or a
+ * batch fails, the pairs are dropped and counted instead of blocking callers.
+ */
+@Component
+public class StoryViewBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(StoryViewBuffer.class);
+
+    // Skips rows whose story or viewer was deleted after the view was recorded
+    private static final String INSERT_VIEW = """
+        INSERT INTO story_views (story_id, viewer_id)
+        SELECT ?, ?
+        WHERE EXISTS (SELECT 1 FROM story WHERE id = ?)
+          AND EXISTS (SELECT 1 FROM app_user WHERE id = ?)
+        ON CONFLICT DO NOTHING
+    """;
+
+    private record StoryView(long storyId, long viewerId) {
+    }
+
+    private static final class ViewCounter {
+        final HyperLogLog hll = new HyperLogLog();
+        volatile long seededAtMillis;
+        volatile long touchedAtMillis = System.currentTimeMillis();
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${stories.views.batch-size:500}")
+    private int batchSize;
+
+    @Value("${stories.views.max-pending:100000}")
+    private int maxPending;
+
+    // Other nodes' views reach a counter only through story_views; a re-seed reads every
+    // viewer row of the story, so it is kept rare and the count may lag by this much
+    @Value("${stories.views.reseed-ms:300000}")
+    private long reseedMs;
+
+    // Stories expire after 24h; counters idle for longer are dropped
+    @Value("${stories.views.counter-idle-ms:90000000}")
+    private long counterIdleMs;
+
+    private final Set<StoryView> pending = ConcurrentHashMap.newKeySet();
+    private final Map<Long, ViewCounter> counters = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public StoryViewBuffer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records a view without touching the database. Only bumps a counter that
+     * getViewCount already created, so arbitrary story ids cannot allocate sketches.
+     */
+    public void record(long storyId, long viewerId) {
+        ViewCounter counter = counters.get(storyId);
+        if (counter != null) {
+            counter.hll.add(viewerId);
+            counter.touchedAtMillis = System.currentTimeMillis();
+        }
+
+        if (pending.size() >= maxPending) {
+            if (dropped.incrementAndGet() % 1000 == 1) {
+                log.warn("Story view buffer full ({} pending), dropped {} views so far", pending.size(), dropped.get());
+            }
+            return;
+        }
+        pending.add(new StoryView(storyId, viewerId));
+    }
+
+    /** Whether the view is recorded here but not yet flushed to story_views. */
+    public boolean isPending(long storyId, long viewerId) {
+        return pending.contains(new StoryView(storyId, viewerId));
+    }
+
+    /**
+     * Approximate number of distinct viewers, kept per node. Views recorded on this
+     * node count at once; viewers stored in story_views are folded in on the first
+     * call for a story and again once the last fold is older than reseedMs, so views
+     * recorded on other nodes can lag by up to that long. Adding to the sketch is
+     * idempotent, so re-seeding never double counts. Callers must have checked that
+     * the story exists.
+     */
+    public long getViewCount(long storyId) {
+        ViewCounter counter = counters.computeIfAbsent(storyId, id -> new ViewCounter());
+        long now = System.currentTimeMillis();
+        if (now - counter.seededAtMillis > reseedMs) {
+            synchronized (counter) {
+                if (now - counter.seededAtMillis > reseedMs) {
+                    jdbcTemplate.query("SELECT viewer_id FROM story_views WHERE story_id = ?",
+                            rs -> { counter.hll.add(rs.getLong(1)); }, storyId);
+                    counter.seededAtMillis = System.currentTimeMillis();
+                }
+            }
+        }
+        counter.touchedAtMillis = now;
+        return counter.hll.estimate();
+    }
+
+    @Scheduled(fixedDelayString = "${stories.views.flush-ms:1000}")
+    public void flush() {
+        while (!pending.isEmpty()) {
+            List<StoryView> batch = new ArrayList<>(batchSize);
+            Iterator<StoryView> it = pending.iterator();
+            while (it.hasNext() && batch.size() < batchSize) {
+                batch.add(it.next());
+                it.remove();
+            }
+            if (batch.isEmpty()) return;
+            writeBatch(batch);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stories.views.counter-sweep-ms:3600000}")
+    public void evictIdleCounters() {
+        long cutoff = System.currentTimeMillis() - counterIdleMs;
+        counters.values().removeIf(counter -> counter.touchedAtMillis < cutoff);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void writeBatch(List<StoryView> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_VIEW, batch, batch.size(), (ps, view) -> {
+                ps.setLong(1, view.storyId());
+                ps.setLong(2, view.viewerId());
+                ps.setLong(3, view.storyId());
+                ps.setLong(4, view.viewerId());
+            });
+        } catch (Exception e) {
+            dropped.addAndGet(batch.size());
+            log.warn("Failed to flush {} story views: {}", batch.size(), e.getMessage());
+        }
+    }
+}
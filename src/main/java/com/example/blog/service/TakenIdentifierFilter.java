@@ -0,0 +1,103 @@
+package com.example.blog.service;
+
+import com.example.blog.repository.UserRepository;
+import com.example.blog.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bloom filter of taken usernames and emails (case-insensitive), so availability
+ * checks only query the user table when the name might be taken. Built at startup,
+ * extended on registration, and rebuilt nightly to shed deleted users and pick up
+ * registrations made on other nodes. Until the first build every lookup is a
+ * possible positive.
+ */
+@Component
+public class TakenIdentifierFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(TakenIdentifierFilter.class);
+
+    private final UserRepository userRepository;
+
+    @Value("${users.availability.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Headroom so registrations between rebuilds do not push the false-positive rate up
+    @Value("${users.availability.min-capacity:100000}")
+    private int minCapacity;
+
+    private volatile BloomFilter filter;
+
+    // Keys registered while a rebuild is reading users; put into the new filter before the swap
+    private final Object lock = new Object();
+    private List<String> pendingDuringRebuild = null;
+
+    public TakenIdentifierFilter(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${users.availability.rebuild-cron:0 30 4 * * *}")
+    public void rebuild() {
+        synchronized (lock) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+
+        List<Object[]> rows = userRepository.findAllUsernamesAndEmails();
+        BloomFilter fresh = new BloomFilter(Math.max(minCapacity, rows.size() * 2), falsePositiveRate);
+        for (Object[] row : rows) {
+            if (row[0] != null) fresh.put(usernameKey((String) row[0]));
+            if (row[1] != null) fresh.put(emailKey((String) row[1]));
+        }
+        synchronized (lock) {
+            for (String key : pendingDuringRebuild) fresh.put(key);
+            pendingDuringRebuild = null;
+            filter = fresh;
+        }
+        log.info("Taken identifier filter built from {} users", rows.size());
+    }
+
+    public boolean mightBeTakenUsername(String username) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(usernameKey(username));
+    }
+
+    public boolean mightBeTakenEmail(String email) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(emailKey(email));
+    }
+
+    public void onRegistered(String username, String email) {
+        if (username != null) put(usernameKey(username));
+        if (email != null) put(emailKey(email));
+    }
+
+    private void put(String key) {
+        synchronized (lock) {
+            if (pendingDuringRebuild != null) pendingDuringRebuild.add(key);
+            BloomFilter current = filter;
+            if (current != null) current.put(key);
+        }
+    }
+
+    private static String usernameKey(String username) {
+        return "u:" + username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String emailKey(String email) {
+        return "e:" + email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -165,11 +166,12 @@ public class TrunkService {
         List<Trunk> ownTrunks = trunkRepository.findByOwnerIdWithBranches(userId);
 
         // 2. Get public trunks of users they follow
-        List<Trunk> followedPublicTrunks = trunkRepository.findPublicTrunksByFollowedUsers(userId)
-                .stream()
-                // Exclude trunks from users who have blocked currentUser or whom currentUser has blocked
-                .filter(trunk -> !blockService.isBlocked(currentUser, trunk.getOwner()) &&
-                        !blockService.isBlocked(trunk.getOwner(), currentUser))
+        List<Trunk> publicTrunks = trunkRepository.findPublicTrunksByFollowedUsers(userId);
+        // Exclude trunks from users who have blocked currentUser or whom currentUser has blocked
+        Set<Long> visibleOwners = blockService.filterVisible(currentUser,
+                publicTrunks.stream().map(trunk -> trunk.getOwner().getId()).toList());
+        List<Trunk> followedPublicTrunks = publicTrunks.stream()
+                .filter(trunk -> visibleOwners.contains(trunk.getOwner().getId()))
                 .collect(Collectors.toList());
 
         // 3. Combine
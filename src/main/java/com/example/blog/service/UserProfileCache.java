@@ -0,0 +1,97 @@
+package com.example.blog.service;
+
+import com.example.blog.dto.UserProfileView;
+import com.example.blog.repository.UserRepository;
+import com.example.blog.util.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Size-bounded, TTL-based cache of {@link UserProfileView} rows keyed by username,
+ * for profile reads (/me, /user/{username}). Callers that change profile fields
+ * invalidate by username; accepted follow changes invalidate both users by id so
+ * the counters stay current.
+ */
+@Component
+public class UserProfileCache {
+
+    private record Cached(UserProfileView view, long loadedAtMillis) {
+    }
+
+    private final UserRepository userRepository;
+    private final FollowGraphIndex followGraphIndex;
+
+    @Value("${users.profile-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    // Both guarded by entries
+    private final Map<String, Cached> entries;
+    private final Map<Long, String> usernamesById = new HashMap<>();
+
+    public UserProfileCache(UserRepository userRepository, FollowGraphIndex followGraphIndex,
+                            @Value("${users.profile-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.followGraphIndex = followGraphIndex;
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                if (size() <= maxEntries) return false;
+                usernamesById.remove(eldest.getValue().view().getId());
+                return true;
+            }
+        };
+    }
+
+    @PostConstruct
+    void registerListener() {
+        followGraphIndex.addChangeListener((followerId, followingId, added) -> {
+            invalidateId(followerId);
+            invalidateId(followingId);
+        });
+    }
+
+    public Optional<UserProfileView> get(String username) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Cached cached = entries.get(username);
+            if (cached != null && now - cached.loadedAtMillis() < ttlSeconds * 1000) return Optional.of(cached.view());
+        }
+
+        Optional<UserProfileView> loaded = userRepository.findProfileViewByUsername(username);
+        loaded.ifPresent(view -> {
+            synchronized (entries) {
+                entries.put(username, new Cached(view, now));
+                usernamesById.put(view.getId(), username);
+            }
+        });
+        return loaded;
+    }
+
+    /** Drops the row now and again after the current transaction commits. */
+    public void invalidate(String username) {
+        if (username == null) return;
+        remove(username);
+        AfterCommit.run(() -> remove(username));
+    }
+
+    private void invalidateId(long userId) {
+        String username;
+        synchronized (entries) {
+            username = usernamesById.get(userId);
+        }
+        if (username != null) remove(username);
+    }
+
+    private void remove(String username) {
+        synchronized (entries) {
+            Cached removed = entries.remove(username);
+            if (removed != null) usernamesById.remove(removed.view().getId());
+        }
+    }
+}
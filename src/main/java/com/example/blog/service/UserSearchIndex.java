@@ -0,0 +1,264 @@
+package com.example.blog.service;
+
+import com.example.blog.entity.AppUser;
+import com.example.blog.repository.UserRepository;
+import com.example.blog.util.AfterCommit;
+import com.example.blog.util.SortedLongArrays;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory typeahead index over usernames and full names of non-banned users.
+ *
+ * Prefixes are answered from a sorted term map (username, full name and each
+ * name word), substrings of three or more characters from trigram posting lists
+ * verified against the entry. Matches rank exact username first, then by
+ * follower count. Kept current after commit on registration, edits, bans and
+ * deletes; follower counts follow the graph index; fully rebuilt periodically.
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    // Upper bound on ids gathered per query before ranking, so one-letter prefixes stay cheap
+    private static final int MAX_CANDIDATES = 2000;
+
+    private record Entry(long id, String usernameLower, String fullNameLower, int followerCount) {
+        Entry withFollowerCount(int count) {
+            return new Entry(id, usernameLower, fullNameLower, Math.max(0, count));
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final FollowGraphIndex followGraphIndex;
+
+    private volatile Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private volatile NavigableMap<String, long[]> terms = new ConcurrentSkipListMap<>();
+    private volatile Map<String, long[]> trigrams = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+
+    // Writes that arrive while a rebuild is reading users; replayed before the swap
+    private final Object lock = new Object();
+    private List<Runnable> pendingDuringRebuild = null;
+
+    public UserSearchIndex(UserRepository userRepository, FollowGraphIndex followGraphIndex) {
+        this.userRepository = userRepository;
+        this.followGraphIndex = followGraphIndex;
+    }
+
+    @PostConstruct
+    void registerListener() {
+        followGraphIndex.addChangeListener((followerId, followingId, added) ->
+                entries.computeIfPresent(followingId,
+                        (id, entry) -> entry.withFollowerCount(entry.followerCount() + (added ? 1 : -1))));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${users.search.rebuild-ms:1800000}", initialDelayString = "${users.search.rebuild-ms:1800000}")
+    public void rebuild() {
+        synchronized (lock) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+
+        List<Object[]> rows = userRepository.findSearchableUsers();
+        Map<Long, Entry> newEntries = new ConcurrentHashMap<>(rows.size() * 2);
+        Map<String, List<Long>> termIds = new HashMap<>();
+        Map<String, List<Long>> trigramIds = new HashMap<>();
+        for (Object[] row : rows) {
+            Entry entry = toEntry(((Number) row[0]).longValue(), (String) row[1], (String) row[2],
+                    row[3] == null ? 0 : ((Number) row[3]).intValue());
+            newEntries.put(entry.id(), entry);
+            for (String term : termsOf(entry)) termIds.computeIfAbsent(term, k -> new ArrayList<>()).add(entry.id());
+            for (String gram : trigramsOf(entry)) trigramIds.computeIfAbsent(gram, k -> new ArrayList<>()).add(entry.id());
+        }
+
+        synchronized (lock) {
+            entries = newEntries;
+            terms = new ConcurrentSkipListMap<>(toPostings(termIds));
+            trigrams = new ConcurrentHashMap<>(toPostings(trigramIds));
+            for (Runnable op : pendingDuringRebuild) op.run();
+            pendingDuringRebuild = null;
+            loaded = true;
+            log.info("User search index built: {} users, {} terms, {} trigrams", newEntries.size(), terms.size(), trigrams.size());
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Ids of matching non-banned users, best first. Empty for a blank query.
+     */
+    public List<Long> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) return List.of();
+
+        Map<Long, Entry> snapshot = entries;
+        Set<Long> candidates = new LinkedHashSet<>();
+        for (long[] ids : terms.subMap(q, true, q + Character.MAX_VALUE, false).values()) {
+            for (long id : ids) candidates.add(id);
+            if (candidates.size() >= MAX_CANDIDATES) break;
+        }
+        if (q.length() >= 3 && candidates.size() < MAX_CANDIDATES) {
+            collectSubstringMatches(q, snapshot, candidates);
+        }
+
+        List<Entry> matches = new ArrayList<>(candidates.size());
+        for (Long id : candidates) {
+            Entry entry = snapshot.get(id);
+            if (entry != null) matches.add(entry);
+        }
+        matches.sort(Comparator
+                .comparing((Entry e) -> !e.usernameLower().equals(q))
+                .thenComparing(Entry::followerCount, Comparator.reverseOrder())
+                .thenComparing(Entry::usernameLower));
+
+        List<Long> result = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) result.add(matches.get(i).id());
+        return result;
+    }
+
+    /** Index (or re-index) the user once the surrounding transaction commits; banned users are dropped. */
+    public void onUserSaved(AppUser user) {
+        if (user.getId() == null) return;
+        long id = user.getId();
+        if (user.isBanned()) {
+            onUserRemoved(id);
+            return;
+        }
+        String username = user.getUsername();
+        String fullName = user.getFullName();
+        int followerCount = user.getFollowerCount();
+        AfterCommit.run(() -> write(() -> put(toEntry(id, username, fullName, followerCount))));
+    }
+
+    /** Remove the user (deleted or banned) once the surrounding transaction commits. */
+    public void onUserRemoved(long userId) {
+        AfterCommit.run(() -> write(() -> remove(userId)));
+    }
+
+    private void write(Runnable op) {
+        synchronized (lock) {
+            if (pendingDuringRebuild != null) pendingDuringRebuild.add(op);
+            op.run();
+        }
+    }
+
+    // Callers hold lock
+    private void put(Entry entry) {
+        Entry previous = entries.get(entry.id());
+        if (previous != null) {
+            // Keep the live follower count; the user row may predate recent follows
+            entry = entry.withFollowerCount(Math.max(entry.followerCount(), previous.followerCount()));
+            unindex(previous);
+        }
+        entries.put(entry.id(), entry);
+        long id = entry.id();
+        for (String term : termsOf(entry)) terms.compute(term, (k, ids) -> SortedLongArrays.insert(ids, id));
+        for (String gram : trigramsOf(entry)) trigrams.compute(gram, (k, ids) -> SortedLongArrays.insert(ids, id));
+    }
+
+    // Callers hold lock
+    private void remove(long userId) {
+        Entry previous = entries.remove(userId);
+        if (previous != null) unindex(previous);
+    }
+
+    private void unindex(Entry entry) {
+        long id = entry.id();
+        for (String term : termsOf(entry)) terms.computeIfPresent(term, (k, ids) -> emptyToNull(SortedLongArrays.remove(ids, id)));
+        for (String gram : trigramsOf(entry)) trigrams.computeIfPresent(gram, (k, ids) -> emptyToNull(SortedLongArrays.remove(ids, id)));
+    }
+
+    private void collectSubstringMatches(String q, Map<Long, Entry> snapshot, Set<Long> candidates) {
+        List<long[]> postings = new ArrayList<>();
+        for (String gram : trigramsOf(q)) {
+            long[] ids = trigrams.get(gram);
+            if (ids == null) return;
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(ids -> ids.length));
+
+        long[] smallest = postings.get(0);
+        outer:
+        for (long id : smallest) {
+            for (int i = 1; i < postings.size(); i++) {
+                if (!SortedLongArrays.contains(postings.get(i), id)) continue outer;
+            }
+            Entry entry = snapshot.get(id);
+            if (entry != null && (entry.usernameLower().contains(q) || entry.fullNameLower().contains(q))) {
+                candidates.add(id);
+                if (candidates.size() >= MAX_CANDIDATES) return;
+            }
+        }
+    }
+
+    private static Entry toEntry(long id, String username, String fullName, int followerCount) {
+        return new Entry(id, normalize(username), normalize(fullName), followerCount);
+    }
+
+    private static Set<String> termsOf(Entry entry) {
+        Set<String> result = new LinkedHashSet<>();
+        if (!entry.usernameLower().isEmpty()) result.add(entry.usernameLower());
+        if (!entry.fullNameLower().isEmpty()) {
+            result.add(entry.fullNameLower());
+            for (String word : entry.fullNameLower().split(" ")) {
+                if (!word.isEmpty()) result.add(word);
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> trigramsOf(Entry entry) {
+        Set<String> result = trigramsOf(entry.usernameLower());
+        result.addAll(trigramsOf(entry.fullNameLower()));
+        return result;
+    }
+
+    private static Set<String> trigramsOf(String text) {
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) result.add(text.substring(i, i + 3));
+        return result;
+    }
+
+    private static Map<String, long[]> toPostings(Map<String, List<Long>> grouped) {
+        Map<String, long[]> result = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((key, ids) -> {
+            long[] buffer = new long[ids.size()];
+            for (int i = 0; i < buffer.length; i++) buffer[i] = ids.get(i);
+            result.put(key, SortedLongArrays.fromUnsorted(buffer, buffer.length));
+        });
+        return result;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private static long[] emptyToNull(long[] set) {
+        return set.length == 0 ? null : set;
+    }
+}
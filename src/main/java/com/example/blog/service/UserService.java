@@ -3,18 +3,25 @@ package com.example.blog.service;
 import com.example.blog.controller.PushController;
 import com.example.blog.dto.ReferralDto;
 import com.example.blog.dto.UserDto;
+import com.example.blog.dto.UserProfileView;
 import com.example.blog.entity.AppUser;
 import com.example.blog.repository.FollowRepository;
+import com.example.blog.repository.StoryArchiveRepository;
 import com.example.blog.repository.UserRepository;
+import com.example.blog.security.PrincipalCache;
+import com.example.blog.util.AfterCommit;
 
 import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -33,12 +40,23 @@ import java.util.stream.Collectors;
 @Service
 public class UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final FileStorageService fileStorageService;
     private final FollowRepository followRepository;
-    private final JavaMailSender mailSender;
+    private final EmailOutboxService emailOutboxService;
+    private final FollowGraphIndex followGraphIndex;
+    private final PrincipalCache principalCache;
+    private final UserSearchIndex userSearchIndex;
+    private final ReferralLeaderboard referralLeaderboard;
+    private final UserProfileCache userProfileCache;
+    private final TakenIdentifierFilter takenIdentifierFilter;
+    private final StoryArchiveRepository storyArchiveRepository;
+    private final S3Service s3Service;
     private final RestTemplate restTemplate = new RestTemplate();
+    private volatile List<UserDto> socialProofUsers;
 
     @Getter
     @Value("${spotify.client.id}")
@@ -52,12 +70,24 @@ public class UserService {
 
     public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
                        FileStorageService fileStorageService, FollowRepository followRepository,
-                       JavaMailSender mailSender) {
+                       EmailOutboxService emailOutboxService, FollowGraphIndex followGraphIndex,
+                       PrincipalCache principalCache, UserSearchIndex userSearchIndex,
+                       ReferralLeaderboard referralLeaderboard, UserProfileCache userProfileCache,
+                       TakenIdentifierFilter takenIdentifierFilter, StoryArchiveRepository storyArchiveRepository,
+                       S3Service s3Service) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.fileStorageService = fileStorageService;
         this.followRepository = followRepository;
-        this.mailSender = mailSender;
+        this.emailOutboxService = emailOutboxService;
+        this.followGraphIndex = followGraphIndex;
+        this.principalCache = principalCache;
+        this.userSearchIndex = userSearchIndex;
+        this.referralLeaderboard = referralLeaderboard;
+        this.userProfileCache = userProfileCache;
+        this.takenIdentifierFilter = takenIdentifierFilter;
+        this.storyArchiveRepository = storyArchiveRepository;
+        this.s3Service = s3Service;
     }
 
     public Optional<AppUser> findById(Long id) {
@@ -66,8 +96,8 @@ public class UserService {
 
     // --- User DTO ---
     public UserDto toUserDTO(AppUser user) {
-        int followersCount = getFollowersCount(user.getId());
-        int followingCount = getFollowingCount(user.getId());
+        int followersCount = user.getFollowerCount();
+        int followingCount = user.getFollowingCount();
 
         return new UserDto(
                 user.getId(),
@@ -136,21 +166,41 @@ public class UserService {
         newUser.setSpotifyPremium(false);
         newUser.setReferredBy(null);
         userRepository.save(newUser);
+        userSearchIndex.onUserSaved(newUser);
+        takenIdentifierFilter.onRegistered(username, email);
         return newUser;
     }
 
+    // The filter answers "definitely free" in memory; only possible positives reach the DB
+    public boolean isUsernameAvailable(String username) {
+        return !takenIdentifierFilter.mightBeTakenUsername(username) || !userRepository.existsByUsername(username);
+    }
+
+    public boolean isEmailAvailable(String email) {
+        return !takenIdentifierFilter.mightBeTakenEmail(email) || !userRepository.existsByEmail(email);
+    }
+
     public List<AppUser> getUsers() {
         return userRepository.findAll();
     }
 
     public List<UserDto> getSocialProofUsers() {
-        // Querying for users with profile pictures, non-empty, and not banned
-        return userRepository.findAll().stream()
-                .filter(user -> user.getProfilePictureUrl() != null && !user.getProfilePictureUrl().isBlank())
-                .filter(user -> !user.isBanned())
-                .limit(5)
+        List<UserDto> snapshot = socialProofUsers;
+        return snapshot != null ? snapshot : refreshSocialProofUsers();
+    }
+
+    // Landing-page profiles: the first few non-banned users with a picture, rebuilt on a timer
+    // so anonymous traffic only ever reads the cached list
+    @Scheduled(fixedDelayString = "${users.social-proof.refresh-ms:300000}", initialDelayString = "${users.social-proof.refresh-ms:300000}")
+    public List<UserDto> refreshSocialProofUsers() {
+        List<UserDto> snapshot = userRepository
+                .findTop5ByProfilePictureUrlIsNotNullAndProfilePictureUrlNotAndBannedFalse("", PageRequest.of(0, 5, Sort.by("id")))
+                .stream()
+                .filter(user -> !user.getProfilePictureUrl().isBlank())
                 .map(this::toUserDTO)
                 .toList();
+        socialProofUsers = snapshot;
+        return snapshot;
     }
 
     public AppUser getCurrentUser() {
@@ -159,10 +209,39 @@ public class UserService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
 
+    @Transactional
     public void deleteUser(String username) {
         AppUser deleteUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found with the username: " + username));
+        userRepository.decrementFollowerCountsOfFollowees(deleteUser.getId());
+        userRepository.decrementFollowingCountsOfFollowers(deleteUser.getId());
+
+        long userId = deleteUser.getId();
+        for (long followee : followGraphIndex.followingOf(userId)) followGraphIndex.onFollowRemoved(userId, followee);
+        for (long follower : followGraphIndex.followersOf(userId)) followGraphIndex.onFollowRemoved(follower, userId);
+
+        // story_archive has no foreign key to app_user, so archived copies and their media go explicitly
+        List<String> archivedMedia = storyArchiveRepository.findS3KeysByAuthorId(userId);
+        storyArchiveRepository.deleteByAuthorId(userId);
+        if (!archivedMedia.isEmpty()) AfterCommit.run(() -> deleteArchivedMedia(userId, archivedMedia));
+
         userRepository.delete(deleteUser);
+        principalCache.invalidate(deleteUser.getUsername());
+        userProfileCache.invalidate(deleteUser.getUsername());
+        userSearchIndex.onUserRemoved(userId);
+        referralLeaderboard.onReferredByChanged(deleteUser.getReferredBy(), null, null);
+    }
+
+    private void deleteArchivedMedia(long userId, List<String> keys) {
+        try {
+            List<String> failed = s3Service.deleteFiles(keys);
+            if (!failed.isEmpty()) {
+                log.warn("Could not delete {} of {} archived story media objects of deleted user {}",
+                        failed.size(), keys.size(), userId);
+            }
+        } catch (Exception e) {
+            log.warn("Could not delete archived story media of deleted user {}: {}", userId, e.getMessage());
+        }
     }
 
     @Transactional
@@ -172,9 +251,19 @@ public class UserService {
 
         user.setBio(bio);
         if (accentColor != null) user.setAccentColor(accentColor);
-        if (profilePictureUrl != null) user.setProfilePictureUrl(profilePictureUrl);
-        if (referredByUsername != null) user.setReferredBy(referredByUsername.getUsername());
-        return userRepository.save(user);
+        if (profilePictureUrl != null) {
+            user.setProfilePictureUrl(profilePictureUrl);
+            referralLeaderboard.onProfilePictureChanged(user.getUsername(), profilePictureUrl);
+        }
+        if (referredByUsername != null) {
+            referralLeaderboard.onReferredByChanged(user.getReferredBy(), referredByUsername.getUsername(),
+                    referredByUsername.getProfilePictureUrl());
+            user.setReferredBy(referredByUsername.getUsername());
+        }
+        AppUser saved = userRepository.save(user);
+        userSearchIndex.onUserSaved(saved);
+        userProfileCache.invalidate(username);
+        return saved;
     }
 
     public AppUser getUserByUsername(String username) {
@@ -182,16 +271,29 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with the username: " + username));
     }
 
+    /** Profile fields and counters for rendering, served from {@link UserProfileCache}. */
+    public Optional<UserProfileView> getProfileView(String username) {
+        return userProfileCache.get(username);
+    }
+
     public int getFollowersCount(Long userId) {
-        return followRepository.countByFollowing_IdAndAcceptedTrue(userId);
+        return userRepository.findFollowerCountById(userId).orElse(0);
     }
 
     public int getFollowingCount(Long userId) {
-        return followRepository.countByFollowerIdAndAcceptedTrue(userId);
+        return userRepository.findFollowingCountById(userId).orElse(0);
     }
 
     public List<AppUser> searchUsersByUsername(String query, int limit) {
-        return userRepository.findTop5ByUsernameContainingIgnoreCase(query);
+        if (!userSearchIndex.isLoaded()) {
+            return userRepository.findTop5ByUsernameContainingIgnoreCase(query);
+        }
+        List<Long> ids = userSearchIndex.search(query, limit);
+        if (ids.isEmpty()) return List.of();
+
+        Map<Long, AppUser> byId = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(AppUser::getId, u -> u));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
     }
 
     public void updateSpotifyConnection(String username, boolean connected, String accessToken, String refreshToken, boolean isPremium) {
@@ -206,6 +308,7 @@ public class UserService {
         }
 
         userRepository.save(user);
+        userProfileCache.invalidate(username);
     }
 
     // --- Spotify disconnect ---
@@ -219,6 +322,7 @@ public class UserService {
         user.setSpotifyConnected(false);
 
         userRepository.save(user);
+        userProfileCache.invalidate(username);
     }
 
 
@@ -233,12 +337,8 @@ public class UserService {
     public void sendVerificationEmail(String email, String token) {
         String url = "https://www.trasora.com/verify-email?token=" + token;
 
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(email);
-        message.setSubject("Verify your email");
-        message.setText("Thank you for registering. Please click the link to verify your account:\n" + url);
-
-        mailSender.send(message);
+        emailOutboxService.enqueue(email, "Verify your email",
+                "Thank you for registering. Please click the link to verify your account:\n" + url);
     }
 
     public Optional<AppUser> findByVerificationToken(String token) {
@@ -251,7 +351,6 @@ public class UserService {
         Optional<AppUser> optionalUser = userRepository.findByEmail(email);
         if (optionalUser.isEmpty()) return false;
 
-        System.out.println("Hello");
         AppUser user = optionalUser.get();
         String token = UUID.randomUUID().toString();
         user.setPasswordResetToken(token);
@@ -259,17 +358,9 @@ public class UserService {
         userRepository.save(user);
 
         String resetLink = "https://www.trasora.com/reset-password?token=" + token;
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(user.getEmail());
-        message.setSubject("Password Reset Request");
-        message.setText("Click the link below to reset your password:\n" + resetLink);
-        try {
-            mailSender.send(message);
-        } catch (Exception e) {
-            e.printStackTrace(); // will show the exact SMTP exception
-            throw new RuntimeException("Failed to send email: " + e.getMessage());
-        }
-
+        // Queued in this transaction, so the email exists only if the token was saved
+        emailOutboxService.enqueue(user.getEmail(), "Password Reset Request",
+                "Click the link below to reset your password:\n" + resetLink);
 
         return true;
     }
@@ -287,6 +378,7 @@ public class UserService {
         user.setPasswordResetToken(null);
         user.setPasswordResetTokenExpiry(null);
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
     }
 
     // --- Profile visibility ---
@@ -295,6 +387,7 @@ public class UserService {
         AppUser user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
         user.setProfilePublic(profilePublic);
+        userProfileCache.invalidate(username);
         return userRepository.save(user);
     }
 
@@ -347,6 +440,7 @@ public class UserService {
         AppUser user = userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("No user found with the username: " + username));
         user.setBranchCount(user.getBranchCount() + 1);
         userRepository.save(user);
+        userProfileCache.invalidate(username);
     }
 
     public AppUser updateReferredBy(String currentUser, String referredByUsername) {
@@ -362,36 +456,16 @@ public class UserService {
                         "User not found with the username: " + referredByUsername
                 ));
 
+        String previousReferrer = user.getReferredBy();
         user.setReferredBy(referrer.getUsername());
-        return userRepository.save(user);
+        AppUser saved = userRepository.save(user);
+        userProfileCache.invalidate(currentUser);
+        referralLeaderboard.onReferredByChanged(previousReferrer, referrer.getUsername(), referrer.getProfilePictureUrl());
+        return saved;
     }
 
     public List<ReferralDto> getReferralLeaderboard() {
-        List<AppUser> users = userRepository.findAll();
-
-        // Initialize map with all users (count 0)
-        Map<String, ReferralDto> referralMap = new HashMap<>();
-        for (AppUser user : users) {
-            referralMap.put(user.getUsername(), new ReferralDto(
-                    user.getUsername(),
-                    0,
-                    user.getProfilePictureUrl()
-            ));
-        }
-
-        // Count referrals
-        for (AppUser user : users) {
-            String referrer = user.getReferredBy();
-            if (referrer != null && !referrer.isEmpty()) {
-                referralMap.get(referrer).incrementCount();
-            }
-        }
-
-        // Convert to list, sort descending, take top 10
-        return referralMap.values().stream()
-                .sorted(Comparator.comparingInt(ReferralDto::getReferralCount).reversed())
-                .limit(10)
-                .collect(Collectors.toList());
+        return referralLeaderboard.getTop();
     }
 
     public Optional<AppUser> findByTokenEvenIfNull(String token) {
@@ -423,6 +497,7 @@ public class UserService {
             user.setPushSubscriptionKeysP256dh(subscriptionRequest.getKeysP256dh());
             user.setPushSubscriptionKeysAuth(subscriptionRequest.getKeysAuth());
             userRepository.save(user);
+            userProfileCache.invalidate(username);
         }
     }
 
@@ -435,6 +510,7 @@ public class UserService {
                 user.setPushSubscriptionKeysP256dh(null);
                 user.setPushSubscriptionKeysAuth(null);
                 userRepository.save(user);
+                userProfileCache.invalidate(username);
                 return true;
             }
         }
@@ -448,6 +524,7 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         user.setApnDeviceToken(token);
         userRepository.save(user);
+        userProfileCache.invalidate(username);
     }
 
 
@@ -465,6 +542,7 @@ public class UserService {
             AppUser user = userOpt.get();
             user.setApnDeviceToken(null);
             userRepository.save(user);
+            userProfileCache.invalidate(username);
         }
     }
 
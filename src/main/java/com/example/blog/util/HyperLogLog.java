@@ -0,0 +1,65 @@
+package com.example.blog.util;
+
+/**
+ * HyperLogLog distinct counter over long ids: 2^precision one-byte registers
+ * (4 KB at the default precision of 12, about 1.6% standard error), with linear
+ * counting for small cardinalities. Adds are idempotent, so replaying ids is safe.
+ * Thread-safe.
+ */
+public final class HyperLogLog {
+
+    private final int precision;
+    private final byte[] registers;
+    private final double alphaMM;
+
+    public HyperLogLog() {
+        this(12);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) throw new IllegalArgumentException("Precision must be 4..16: " + precision);
+        this.precision = precision;
+        int m = 1 << precision;
+        this.registers = new byte[m];
+        this.alphaMM = 0.7213 / (1 + 1.079 / m) * m * m;
+    }
+
+    public void add(long value) {
+        long hash = mix(value);
+        int index = (int) (hash >>> (64 - precision));
+        // Rank of the first set bit in the remaining bits; a sentinel bit caps it
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        synchronized (registers) {
+            if (registers[index] < rank) registers[index] = rank;
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        synchronized (registers) {
+            for (byte register : registers) {
+                sum += 1.0 / (1L << register);
+                if (register == 0) zeros++;
+            }
+        }
+        double estimate = alphaMM / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    // MurmurHash3 fmix64
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
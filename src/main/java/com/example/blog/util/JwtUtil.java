@@ -2,14 +2,23 @@ package com.example.blog.util;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 
 @Component
 public class JwtUtil {
@@ -19,6 +28,25 @@ public class JwtUtil {
 
     private final Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
 
+    // Immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+
+    /** Claims of a token whose signature has already been checked. */
+    public record VerifiedToken(String subject, String type, long expiresAtMillis) {
+    }
+
+    // SHA-256 of the raw token -> verified claims, so each token is HMAC-verified once per lifetime
+    private final Map<String, VerifiedToken> verifiedTokens;
+
+    public JwtUtil(@Value("${jwt.verified-cache.max-entries:10000}") int maxCachedTokens) {
+        this.verifiedTokens = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > maxCachedTokens;
+            }
+        };
+    }
+
     private String generateToken(String username, long expirationMillis, String type) {
         return Jwts.builder()
                 .setSubject(username)
@@ -38,27 +66,61 @@ public class JwtUtil {
     }
 
     public String extractUsername(String token) {
-        return getClaims(token).getSubject();
+        return requireVerified(token).subject();
     }
 
     public String extractType(String token) {
-        return getClaims(token).get("type", String.class);
+        return requireVerified(token).type();
     }
 
-    private Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public boolean validateToken(String token) {
+        return verify(token).isPresent();
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * Verified claims of the token, or empty if it is malformed, tampered with or
+     * expired. Only the first call per token pays for the signature check.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isEmpty()) return Optional.empty();
+
+        String hash = sha256(token);
+        long now = System.currentTimeMillis();
+        synchronized (verifiedTokens) {
+            VerifiedToken cached = verifiedTokens.get(hash);
+            if (cached != null) {
+                if (cached.expiresAtMillis() > now) return Optional.of(cached);
+                verifiedTokens.remove(hash);
+                return Optional.empty();
+            }
+        }
+
+        VerifiedToken verified;
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Date expiration = claims.getExpiration();
+            verified = new VerifiedToken(claims.getSubject(), claims.get("type", String.class),
+                    expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        synchronized (verifiedTokens) {
+            verifiedTokens.put(hash, verified);
+        }
+        return Optional.of(verified);
+    }
+
+    private VerifiedToken requireVerified(String token) {
+        return verify(token).orElseThrow(() -> new JwtException("Invalid or expired token"));
+    }
+
+    private static String sha256(String token) {
         try {
-            getClaims(token); // will throw if invalid/expired
-            return true;
-        } catch (JwtException e) {
-            return false;
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 
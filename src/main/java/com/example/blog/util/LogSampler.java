@@ -0,0 +1,105 @@
+package com.example.blog.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-category sampling and rate limiting for hot-path log lines.
+ *
+ * A category ("notifications.create", "push.apns", ...) has a sample rate in [0, 1]
+ * and a cap on lines per second; anything over the cap is counted as suppressed.
+ * Policies start from logging.sampling.policies and can be changed at runtime.
+ */
+@Component
+public class LogSampler {
+
+    public record Policy(double sampleRate, int maxPerSecond) {
+    }
+
+    public record CategoryStats(Policy policy, long logged, long suppressed) {
+    }
+
+    private static final Policy DEFAULT_POLICY = new Policy(1.0, 100);
+
+    @Value("${logging.sampling.policies:notifications.create=1.0/100,push.apns=1.0/100,push.web=1.0/100,push.payload=0.01/5,comments.create=1.0/50,share.hit=0.1/20}")
+    private String policySpec;
+
+    private final Map<String, Category> categories = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void loadPolicies() {
+        for (String entry : policySpec.split(",")) {
+            String[] parts = entry.trim().split("[=/]");
+            if (parts.length != 3) continue;
+            try {
+                setPolicy(parts[0].trim(), new Policy(Double.parseDouble(parts[1]), Integer.parseInt(parts[2])));
+            } catch (IllegalArgumentException ignored) {
+                // Malformed entries fall back to the default policy
+            }
+        }
+    }
+
+    /**
+     * Returns true if a line in this category should be written now.
+     */
+    public boolean shouldLog(String category) {
+        Category c = categories.computeIfAbsent(category, k -> new Category(DEFAULT_POLICY));
+        Policy policy = c.policy;
+
+        if (policy.sampleRate() <= 0 || (policy.sampleRate() < 1.0
+                && ThreadLocalRandom.current().nextDouble() >= policy.sampleRate())) {
+            c.suppressed.incrementAndGet();
+            return false;
+        }
+
+        long second = System.currentTimeMillis() / 1000;
+        if (c.windowSecond.get() != second) {
+            c.windowSecond.set(second);
+            c.windowCount.set(0);
+        }
+        if (c.windowCount.incrementAndGet() > policy.maxPerSecond()) {
+            c.suppressed.incrementAndGet();
+            return false;
+        }
+
+        c.logged.incrementAndGet();
+        return true;
+    }
+
+    public void setPolicy(String category, Policy policy) {
+        double rate = Math.max(0.0, Math.min(1.0, policy.sampleRate()));
+        Policy clamped = new Policy(rate, Math.max(0, policy.maxPerSecond()));
+        categories.compute(category, (k, existing) -> {
+            if (existing == null) return new Category(clamped);
+            existing.policy = clamped;
+            return existing;
+        });
+    }
+
+    public Map<String, CategoryStats> getStats() {
+        Map<String, CategoryStats> stats = new TreeMap<>();
+        categories.forEach((name, c) ->
+                stats.put(name, new CategoryStats(c.policy, c.logged.get(), c.suppressed.get())));
+        return stats;
+    }
+
+    private static final class Category {
+        private volatile Policy policy;
+        private final AtomicLong windowSecond = new AtomicLong();
+        private final AtomicInteger windowCount = new AtomicInteger();
+        private final AtomicLong logged = new AtomicLong();
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private Category(Policy policy) {
+            this.policy = policy;
+        }
+    }
+}
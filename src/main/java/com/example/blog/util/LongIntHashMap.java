@@ -0,0 +1,90 @@
+package com.example.blog.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing long → int map (linear probing) for scoring loops that would
+ * otherwise box every key and value into a HashMap<Long, Integer>.
+ * Not thread-safe; meant to be reused by one thread via {@link #clear()}.
+ */
+public final class LongIntHashMap {
+
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    /** Adds delta to the value for key (starting from 0) and returns the new value. */
+    public int addTo(long key, int delta) {
+        if (key == EMPTY_KEY) throw new IllegalArgumentException("Key not supported: " + key);
+        int slot = slot(key);
+        while (keys[slot] != EMPTY_KEY) {
+            if (keys[slot] == key) return values[slot] += delta;
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 2 > keys.length) grow();
+        return delta;
+    }
+
+    public int get(long key) {
+        int slot = slot(key);
+        while (keys[slot] != EMPTY_KEY) {
+            if (keys[slot] == key) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(keys, EMPTY_KEY);
+        size = 0;
+    }
+
+    /** Calls the consumer for every entry, in no particular order. */
+    public void forEach(Entry consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY_KEY) consumer.accept(keys[i], values[i]);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Entry {
+        void accept(long key, int value);
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        mask = capacity - 1;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) addTo(oldKeys[i], oldValues[i]);
+        }
+    }
+}
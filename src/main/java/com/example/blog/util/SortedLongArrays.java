@@ -0,0 +1,86 @@
+package com.example.blog.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers for immutable, sorted, duplicate-free long[] sets.
+ * Updates return a new array so readers never see a partially modified one.
+ */
+public final class SortedLongArrays {
+
+    public static final long[] EMPTY = new long[0];
+
+    private SortedLongArrays() {
+    }
+
+    public static boolean contains(long[] set, long value) {
+        return set != null && set.length > 0 && Arrays.binarySearch(set, value) >= 0;
+    }
+
+    public static long[] insert(long[] set, long value) {
+        if (set == null || set.length == 0) return new long[]{value};
+        int idx = Arrays.binarySearch(set, value);
+        if (idx >= 0) return set;
+        int pos = -idx - 1;
+        long[] result = new long[set.length + 1];
+        System.arraycopy(set, 0, result, 0, pos);
+        result[pos] = value;
+        System.arraycopy(set, pos, result, pos + 1, set.length - pos);
+        return result;
+    }
+
+    public static long[] remove(long[] set, long value) {
+        if (set == null || set.length == 0) return EMPTY;
+        int idx = Arrays.binarySearch(set, value);
+        if (idx < 0) return set;
+        if (set.length == 1) return EMPTY;
+        long[] result = new long[set.length - 1];
+        System.arraycopy(set, 0, result, 0, idx);
+        System.arraycopy(set, idx + 1, result, idx, set.length - idx - 1);
+        return result;
+    }
+
+    /**
+     * Sorts and de-duplicates the first {@code length} values of a scratch buffer.
+     */
+    public static long[] fromUnsorted(long[] values, int length) {
+        if (length == 0) return EMPTY;
+        long[] copy = Arrays.copyOf(values, length);
+        Arrays.sort(copy);
+        int unique = 1;
+        for (int i = 1; i < copy.length; i++) {
+            if (copy[i] != copy[unique - 1]) copy[unique++] = copy[i];
+        }
+        return unique == copy.length ? copy : Arrays.copyOf(copy, unique);
+    }
+
+    /**
+     * Groups [key, value, ...] id rows (as returned by projection queries) into
+     * key → sorted value set.
+     */
+    public static Map<Long, long[]> groupPairs(List<Object[]> rows, int keyIdx, int valueIdx) {
+        Map<Long, long[]> buffers = new HashMap<>();
+        Map<Long, Integer> sizes = new HashMap<>();
+        for (Object[] row : rows) {
+            long key = ((Number) row[keyIdx]).longValue();
+            long value = ((Number) row[valueIdx]).longValue();
+            int size = sizes.getOrDefault(key, 0);
+            long[] buffer = buffers.get(key);
+            if (buffer == null) {
+                buffer = new long[4];
+            } else if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, size * 2);
+            }
+            buffer[size] = value;
+            buffers.put(key, buffer);
+            sizes.put(key, size + 1);
+        }
+
+        Map<Long, long[]> result = new HashMap<>(buffers.size() * 2);
+        buffers.forEach((key, buffer) -> result.put(key, fromUnsorted(buffer, sizes.get(key))));
+        return result;
+    }
+}